@@ -2,12 +2,42 @@ package com.airtraffic;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
 @SpringBootApplication
 @EnableScheduling
+@ImportRuntimeHints(AirTrafficRuntimeHints.class)
 public class AirTrafficControllerApplication {
     public static void main(String[] args) {
-        SpringApplication.run(AirTrafficControllerApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(AirTrafficControllerApplication.class, args);
+        // Class-data-sharing training run: start once, then exit so the JVM writes its class archive
+        if (context.getEnvironment().getProperty("airtraffic.cds.training-run", Boolean.class, false)) {
+            warmUp(context.getEnvironment().getProperty("local.server.port", Integer.class, 8080));
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    // Serve a request first, so the MVC and Jackson classes of the request path land in the archive
+    private static void warmUp(int port) {
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : new String[]{"/api/snapshot", "/api/gamestate"}) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                // A partial archive is still useful
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 }
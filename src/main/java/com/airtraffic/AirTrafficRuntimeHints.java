@@ -0,0 +1,27 @@
+package com.airtraffic;
+
+import com.airtraffic.controller.AirTrafficController;
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.model.TrackPoint;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Types that AOT processing cannot infer from controller signatures: models serialised inside
+// Map payloads and SSE corrections, batch operations read by a hand-built ObjectReader, and the
+// controller whose @Scheduled tick is looked up reflectively
+class AirTrafficRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> model : new Class<?>[]{Aircraft.class, Conflict.class, BatchOperation.class, TrackPoint.class}) {
+            hints.reflection().registerType(model,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.reflection().registerType(AirTrafficController.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -1,12 +1,29 @@
 package com.airtraffic.controller;
 
 import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
 import com.airtraffic.model.Conflict;
+import com.airtraffic.model.TrackPoint;
 import com.airtraffic.service.AirTrafficService;
+import com.airtraffic.service.CorrectionFeed;
+import com.airtraffic.service.FlightRecorder;
+import com.airtraffic.service.TrackFormat;
+import com.airtraffic.service.TrackReplayService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -14,15 +31,57 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 public class AirTrafficController {
+    // A minute of one aircraft is 600 points; anything much larger should be narrowed down
+    private static final int MAX_HISTORY_POINTS = 10_000;
 
     @Autowired
     private AirTrafficService airTrafficService;
 
+    @Autowired
+    private TrackReplayService trackReplayService;
+
+    @Autowired
+    private FlightRecorder flightRecorder;
+
+    @Autowired
+    private CorrectionFeed correctionFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/aircraft")
     public Aircraft addAircraft(@RequestBody Map<String, Double> position) {
         double x = position.getOrDefault("x", 400.0);
         double y = position.getOrDefault("y", 300.0);
-        return airTrafficService.addAircraft(x, y);
+        double altitude = position.getOrDefault("altitude", Aircraft.DEFAULT_ALTITUDE);
+        return airTrafficService.addAircraft(x, y, altitude);
+    }
+
+    // Body is NDJSON (or a JSON array) of operations; results stream back one JSON line each
+    @PostMapping(value = "/aircraft/batch", produces = "application/x-ndjson")
+    public StreamingResponseBody applyBatch(InputStream body) throws IOException {
+        List<BatchOperation> operations = new ArrayList<>();
+        try (MappingIterator<BatchOperation> values =
+                     objectMapper.readerFor(BatchOperation.class).readValues(body)) {
+            while (values.hasNextValue()) {
+                operations.add(values.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getOriginalMessage());
+        }
+
+        List<Map<String, Object>> results;
+        try {
+            results = airTrafficService.applyBatch(operations);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return out -> {
+            for (Map<String, Object> result : results) {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+            }
+        };
     }
 
     @GetMapping("/aircraft")
@@ -35,6 +94,18 @@ public class AirTrafficController {
         return airTrafficService.getActiveConflicts();
     }
 
+    // Tick-stamped aircraft and conflicts for clients that extrapolate between refreshes
+    @GetMapping("/snapshot")
+    public Map<String, Object> getSnapshot() {
+        return airTrafficService.getSnapshot();
+    }
+
+    // Server-sent spawn, velocity and despawn corrections, batched once per tick
+    @GetMapping(value = "/corrections", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeCorrections() {
+        return correctionFeed.subscribe();
+    }
+
     @GetMapping("/gamestate")
     public Map<String, Object> getGameState() {
         return airTrafficService.getGameState();
@@ -70,20 +141,87 @@ public class AirTrafficController {
         airTrafficService.clearAll();
     }
 
+    @PostMapping("/replay")
+    public Map<String, Object> startReplay(@RequestBody Map<String, Object> request) {
+        Object file = request.get("file");
+        if (file == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "file is required");
+        }
+        try {
+            TrackFormat format = TrackFormat.fromName(String.valueOf(request.getOrDefault("format", "csv")));
+            double timeScale = ((Number) request.getOrDefault("timeScale", 1.0)).doubleValue();
+            return trackReplayService.start(file.toString(), format, timeScale);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping("/replay")
+    public Map<String, Object> getReplayStatus() {
+        return trackReplayService.getStatus();
+    }
+
+    @DeleteMapping("/replay")
+    public void stopReplay() {
+        trackReplayService.stop();
+    }
+
+    // Needs an aircraft or a region; without a time range the whole retention window is searched
+    @GetMapping("/history")
+    public List<TrackPoint> getHistory(@RequestParam(required = false) String aircraftId,
+                                       @RequestParam(required = false) Long from,
+                                       @RequestParam(required = false) Long to,
+                                       @RequestParam(required = false) Double minX,
+                                       @RequestParam(required = false) Double minY,
+                                       @RequestParam(required = false) Double maxX,
+                                       @RequestParam(required = false) Double maxY) {
+        double[] region = null;
+        if (minX != null || minY != null || maxX != null || maxY != null) {
+            if (minX == null || minY == null || maxX == null || maxY == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "minX, minY, maxX and maxY must be given together");
+            }
+            region = new double[]{minX, minY, maxX, maxY};
+        }
+        if (aircraftId == null && region == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "aircraftId or minX, minY, maxX and maxY is required");
+        }
+        long fromMillis = from != null ? from : System.currentTimeMillis() - flightRecorder.getRetentionMillis();
+        long toMillis = to != null ? to : Long.MAX_VALUE;
+        try {
+            return flightRecorder.query(aircraftId, fromMillis, toMillis, region, MAX_HISTORY_POINTS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/history/stats")
+    public Map<String, Object> getHistoryStats() {
+        return flightRecorder.getStats();
+    }
+
     // Auto-update positions every 100ms
-    @Scheduled(fixedRate = 100)
+    @Scheduled(fixedRate = AirTrafficService.TICK_MILLIS)
     public void scheduledUpdate() {
-        if (airTrafficService.isGameOver()) {
+        // A replay drives the traffic itself, so it keeps ticking and gets no random aircraft
+        boolean replaying = airTrafficService.isReplayMode();
+        if (airTrafficService.isGameOver() && !replaying) {
+            correctionFeed.flush();
             return;
         }
 
         // Auto-spawn planes to reach target count for current level
         int target = airTrafficService.getTargetAircraftCount();
         int current = airTrafficService.getAllAircrafts().size();
-        if (current < target) {
+        if (!replaying && current < target) {
             airTrafficService.addRandomAircraft();
         }
 
         airTrafficService.updatePositions();
+        // Corrections from this tick and from requests since the last one
+        correctionFeed.flush();
     }
 }
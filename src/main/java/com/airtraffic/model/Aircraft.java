@@ -3,28 +3,50 @@ package com.airtraffic.model;
 public class Aircraft {
     private static final double CANVAS_WIDTH = 800.0;
     private static final double CANVAS_HEIGHT = 600.0;
+    // Altitudes are in feet and clamped to this ceiling so flight-level bands stay bounded
+    public static final double MAX_ALTITUDE = 60000.0;
+    public static final double DEFAULT_ALTITUDE = 10000.0;
     
     private String id;
     private double x;
     private double y;
     private double velocityX;
     private double velocityY;
+    private double altitude;
+    private double verticalSpeed;
     private double heading;
     private String callSign;
+    // Bumped on every velocity change; between bumps the aircraft moves in a straight line
+    private long velocityEpoch;
 
     public Aircraft(String id, double x, double y, double velocityX, double velocityY) {
+        this(id, x, y, velocityX, velocityY, DEFAULT_ALTITUDE, 0.0);
+    }
+
+    public Aircraft(String id, double x, double y, double velocityX, double velocityY,
+                    double altitude, double verticalSpeed) {
         this.id = id;
         this.x = x;
         this.y = y;
         this.velocityX = velocityX;
         this.velocityY = velocityY;
+        this.altitude = clampAltitude(altitude);
+        this.verticalSpeed = verticalSpeed;
         this.heading = Math.toDegrees(Math.atan2(velocityY, velocityX));
         this.callSign = "AC" + id.substring(0, Math.min(4, id.length()));
     }
 
+    public Aircraft copy() {
+        Aircraft copy = new Aircraft(id, x, y, velocityX, velocityY, altitude, verticalSpeed);
+        copy.callSign = callSign;
+        copy.velocityEpoch = velocityEpoch;
+        return copy;
+    }
+
     public void updatePosition(double deltaTime) {
         this.x += this.velocityX * deltaTime;
         this.y += this.velocityY * deltaTime;
+        this.altitude = clampAltitude(this.altitude + this.verticalSpeed * deltaTime);
         
         // Wrap around screen boundaries
         if (this.x < 0) this.x = CANVAS_WIDTH;
@@ -39,6 +61,14 @@ public class Aircraft {
         return Math.sqrt(dx * dx + dy * dy);
     }
 
+    public double verticalDistanceTo(Aircraft other) {
+        return Math.abs(this.altitude - other.altitude);
+    }
+
+    private static double clampAltitude(double altitude) {
+        return Math.max(0.0, Math.min(MAX_ALTITUDE, altitude));
+    }
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -69,8 +99,7 @@ public class Aircraft {
     }
 
     public void setVelocityX(double velocityX) {
-        this.velocityX = velocityX;
-        this.heading = Math.toDegrees(Math.atan2(this.velocityY, velocityX));
+        setVelocity(velocityX, this.velocityY);
     }
 
     public double getVelocityY() {
@@ -78,8 +107,42 @@ public class Aircraft {
     }
 
     public void setVelocityY(double velocityY) {
+        setVelocity(this.velocityX, velocityY);
+    }
+
+    public void setVelocity(double velocityX, double velocityY) {
+        if (velocityX == this.velocityX && velocityY == this.velocityY) {
+            return;
+        }
+        this.velocityX = velocityX;
         this.velocityY = velocityY;
-        this.heading = Math.toDegrees(Math.atan2(velocityY, this.velocityX));
+        this.heading = Math.toDegrees(Math.atan2(velocityY, velocityX));
+        this.velocityEpoch++;
+    }
+
+    public long getVelocityEpoch() {
+        return velocityEpoch;
+    }
+
+    // For rebuilding an aircraft from a copy of its state, such as one handed to another sector
+    public void setVelocityEpoch(long velocityEpoch) {
+        this.velocityEpoch = velocityEpoch;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public void setAltitude(double altitude) {
+        this.altitude = clampAltitude(altitude);
+    }
+
+    public double getVerticalSpeed() {
+        return verticalSpeed;
+    }
+
+    public void setVerticalSpeed(double verticalSpeed) {
+        this.verticalSpeed = verticalSpeed;
     }
 
     public double getHeading() {
@@ -0,0 +1,95 @@
+package com.airtraffic.model;
+
+public class BatchOperation {
+    public static final String SPAWN = "spawn";
+    public static final String REMOVE = "remove";
+    public static final String VELOCITY = "velocity";
+
+    private String op;
+    private String id;
+    private Double x;
+    private Double y;
+    private Double altitude;
+    private Double velocityX;
+    private Double velocityY;
+
+    public BatchOperation() {
+    }
+
+    public BatchOperation(String op, String id, Double x, Double y, Double velocityX, Double velocityY) {
+        this.op = op;
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+    }
+
+    public static BatchOperation spawn(double x, double y) {
+        return new BatchOperation(SPAWN, null, x, y, null, null);
+    }
+
+    public static BatchOperation remove(String id) {
+        return new BatchOperation(REMOVE, id, null, null, null, null);
+    }
+
+    public static BatchOperation velocity(String id, double velocityX, double velocityY) {
+        return new BatchOperation(VELOCITY, id, null, null, velocityX, velocityY);
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Double getX() {
+        return x;
+    }
+
+    public void setX(Double x) {
+        this.x = x;
+    }
+
+    public Double getY() {
+        return y;
+    }
+
+    public void setY(Double y) {
+        this.y = y;
+    }
+
+    public Double getAltitude() {
+        return altitude;
+    }
+
+    public void setAltitude(Double altitude) {
+        this.altitude = altitude;
+    }
+
+    public Double getVelocityX() {
+        return velocityX;
+    }
+
+    public void setVelocityX(Double velocityX) {
+        this.velocityX = velocityX;
+    }
+
+    public Double getVelocityY() {
+        return velocityY;
+    }
+
+    public void setVelocityY(Double velocityY) {
+        this.velocityY = velocityY;
+    }
+}
@@ -24,6 +24,16 @@ public class Conflict {
         this.severity = severity;
     }
 
+    // Re-initialise a pooled instance so the tick loop can reuse it without allocating
+    public void reset(Aircraft aircraft1, Aircraft aircraft2, double distance, String severity) {
+        this.aircraft1 = aircraft1;
+        this.aircraft2 = aircraft2;
+        this.distance = distance;
+        this.resolution = null;
+        this.resolved = false;
+        this.severity = severity;
+    }
+
     public Aircraft getAircraft1() {
         return aircraft1;
     }
@@ -0,0 +1,50 @@
+package com.airtraffic.model;
+
+public class TrackPoint {
+    private final long timeMillis;
+    private final String aircraftId;
+    private final double x;
+    private final double y;
+    private final double heading;
+    private final double altitude;
+    private final String conflictState; // "none", "warning", "danger" or "collision"
+
+    public TrackPoint(long timeMillis, String aircraftId, double x, double y, double heading,
+                      double altitude, String conflictState) {
+        this.timeMillis = timeMillis;
+        this.aircraftId = aircraftId;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.altitude = altitude;
+        this.conflictState = conflictState;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public String getAircraftId() {
+        return aircraftId;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public String getConflictState() {
+        return conflictState;
+    }
+}
@@ -1,45 +1,318 @@
 package com.airtraffic.service;
 
 import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
 import com.airtraffic.model.Conflict;
+import com.airtraffic.service.SectorMessage.AircraftState;
+import com.airtraffic.service.SectorMessage.Collision;
+import com.airtraffic.service.SectorMessage.ConflictReport;
+import com.airtraffic.service.SectorMessage.TickReport;
+import com.airtraffic.service.SectorMessage.VelocityCommand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class AirTrafficService {
     private final Map<String, Aircraft> aircrafts = new ConcurrentHashMap<>();
-    private final List<Conflict> activeConflicts = Collections.synchronizedList(new ArrayList<>());
     // Minimum safe distance in pixels (represents approximately 5 nautical miles at scale)
     private static final double MIN_SEPARATION = 50.0;
-    private static final double WARNING_DISTANCE = 100.0;
+    static final double WARNING_DISTANCE = 100.0;
     private static final double COLLISION_DISTANCE = 15.0;
+    // Vertical thresholds in feet; a pair must be inside both limits to count
+    private static final double VERTICAL_COLLISION_DISTANCE = 100.0;
+    private static final double MIN_VERTICAL_SEPARATION = 1000.0;
+    private static final double WARNING_VERTICAL_DISTANCE = 2000.0;
+    // Bands are at least as tall as the warning distance, so only same or adjacent bands can conflict
+    private static final double FLIGHT_LEVEL_BAND = WARNING_VERTICAL_DISTANCE;
+    private static final int BAND_COUNT = (int) (Aircraft.MAX_ALTITUDE / FLIGHT_LEVEL_BAND) + 1;
     private static final double MIN_TURN_SPEED = 1.0;
     private static final double DELTA_TIME = 0.1; // Time step for updates
+    public static final long TICK_MILLIS = 100; // Wall-clock period of the scheduled tick
     private static final double CANVAS_WIDTH = 800.0;
     private static final double CANVAS_HEIGHT = 600.0;
 
-    private int level = 1;
-    private int lives = 3;
-    private int totalCollisionCount = 0;
-    private int tappedCollisionCount = 0;
-    private boolean gameOver = false;
-    private final Set<String> tappedAircraftIds = Collections.synchronizedSet(new HashSet<>());
-    private final List<double[]> recentExplosions = Collections.synchronizedList(new ArrayList<>());
+    // Null when this service is one sector of a partitioned airspace: the coordinator keeps the
+    // game and applies each sector's tick report to it
+    private final GameState game;
+    // Set when airtraffic.sectors splits the airspace; this service then routes to the sectors
+    private PartitionedAirspace airspace;
+    // Held for a whole tick so batches land between ticks, never inside one
+    private final Object tickLock = new Object();
+
+    // Reusable tick buffers so a steady-state tick does not allocate
+    private static final Aircraft[] EMPTY_FLEET = new Aircraft[0];
+    private volatile Aircraft[] fleet = EMPTY_FLEET;
+    // Read-only copies of a neighbouring sector's border aircraft, used in partitioned mode
+    private volatile Aircraft[] ghosts = EMPTY_FLEET;
+    private Aircraft[] candidates = new Aircraft[16];
+    // Pooled and rewritten every tick; readers only ever see copies taken under tickLock
+    private final List<Conflict> activeConflicts = new ArrayList<>();
+    private final List<Conflict> conflictPool = new ArrayList<>();
+    private final List<Aircraft> collidedAircraft = new ArrayList<>();
+    // Collisions of the last detection as packed x, y midpoints, and the owned aircraft they destroyed
+    private double[] collisionPoints = new double[8];
+    private int collisionCount = 0;
+    private final List<Aircraft> destroyedAircraft = new ArrayList<>();
+    private final int[] bandStart = new int[BAND_COUNT + 1];
+    private final int[] bandOwnedEnd = new int[BAND_COUNT];
+    private int[] bandOf = new int[16];
+    private int[] bandOrder = new int[16];
+    private int pooledConflicts = 0;
+    private FlightRecorder flightRecorder;
+    private CorrectionFeed correctionFeed;
+    // Written under tickLock, read by snapshots and corrections
+    private volatile long tickCount = 0;
+    private volatile long tickTimeMillis = System.currentTimeMillis();
+
+    public AirTrafficService() {
+        this(new GameState());
+    }
+
+    AirTrafficService(GameState game) {
+        this.game = game;
+    }
+
+    // A service without a game of its own, driven only through the returned sector
+    static Sector newSector() {
+        return new AirTrafficService(null).new LocalSector();
+    }
+
+    @Autowired(required = false)
+    public void setFlightRecorder(FlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    @Autowired(required = false)
+    public void setCorrectionFeed(CorrectionFeed correctionFeed) {
+        this.correctionFeed = correctionFeed;
+        if (airspace != null) {
+            airspace.setCorrectionFeed(correctionFeed);
+        }
+    }
+
+    /**
+     * Splits the airspace into this many sectors ticked in parallel. One sector, the default,
+     * keeps the whole airspace in this service.
+     */
+    @Value("${airtraffic.sectors:1}")
+    public void setSectorCount(int sectorCount) {
+        synchronized (tickLock) {
+            if (airspace != null) {
+                airspace.close();
+                airspace = null;
+            }
+            if (sectorCount > 1) {
+                if (!aircrafts.isEmpty()) {
+                    throw new IllegalStateException("Sectors can only be set on an empty airspace");
+                }
+                airspace = new PartitionedAirspace(sectorCount, game);
+                airspace.setCorrectionFeed(correctionFeed);
+            }
+        }
+    }
+
+    public int getSectorCount() {
+        return airspace != null ? airspace.getSectorCount() : 1;
+    }
 
     public Aircraft addAircraft(double x, double y) {
-        String id = UUID.randomUUID().toString();
+        return addAircraft(x, y, Aircraft.DEFAULT_ALTITUDE);
+    }
+
+    public Aircraft addAircraft(double x, double y, double altitude) {
+        Aircraft aircraft = newAircraft(x, y, altitude, null, null);
+        if (airspace != null) {
+            // The sector builds its own aircraft from this one's state
+            synchronized (tickLock) {
+                airspace.spawn(AircraftState.of(aircraft));
+            }
+            return aircraft;
+        }
+        aircrafts.put(aircraft.getId(), aircraft);
+        refreshFleet();
+        publishCorrection(CorrectionFeed.SPAWN, aircraft);
+        return aircraft;
+    }
+
+    private Aircraft newAircraft(double x, double y, double altitude, Double velocityX, Double velocityY) {
         double speedMultiplier = getSpeedMultiplier();
-        // Random velocity between -2 and 2, scaled by level
-        double velocityX = (Math.random() - 0.5) * 4 * speedMultiplier;
-        double velocityY = (Math.random() - 0.5) * 4 * speedMultiplier;
-        
-        Aircraft aircraft = new Aircraft(id, x, y, velocityX, velocityY);
-        aircrafts.put(id, aircraft);
+        // Random velocity between -2 and 2, scaled by level, unless given explicitly
+        double vx = velocityX != null ? velocityX : (Math.random() - 0.5) * 4 * speedMultiplier;
+        double vy = velocityY != null ? velocityY : (Math.random() - 0.5) * 4 * speedMultiplier;
+        return new Aircraft(newAircraftId(), x, y, vx, vy, altitude, 0.0);
+    }
+
+    // Random version 4 UUID without the SecureRandom cost of UUID.randomUUID(); ids are not secrets
+    private static String newAircraftId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(most, least).toString();
+    }
+
+    /**
+     * Applies spawn, remove and velocity operations as one unit between ticks and returns one
+     * result per operation, in order. The whole batch is validated first, so an invalid
+     * operation rejects the batch without applying any of it.
+     */
+    public List<Map<String, Object>> applyBatch(List<BatchOperation> operations) {
+        for (int i = 0; i < operations.size(); i++) {
+            validate(operations.get(i), i);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(operations.size());
+        synchronized (tickLock) {
+            boolean membershipChanged = false;
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", i);
+                result.put("op", operation.getOp());
+                membershipChanged |= applyOperation(operation, result);
+                results.add(result);
+            }
+            // One snapshot rebuild for the whole batch; sectors rebuild theirs before the next tick
+            if (membershipChanged && airspace == null) {
+                refreshFleet();
+            }
+        }
+        return results;
+    }
+
+    // Applies one validated operation, here or as a message to the sector it concerns; returns
+    // whether membership changed
+    private boolean applyOperation(BatchOperation operation, Map<String, Object> result) {
+        switch (operation.getOp()) {
+            case BatchOperation.SPAWN -> {
+                Aircraft aircraft = newAircraft(operation.getX(), operation.getY(),
+                        operation.getAltitude() != null ? operation.getAltitude() : Aircraft.DEFAULT_ALTITUDE,
+                        operation.getVelocityX(), operation.getVelocityY());
+                if (airspace != null) {
+                    airspace.spawn(AircraftState.of(aircraft));
+                } else {
+                    aircrafts.put(aircraft.getId(), aircraft);
+                    publishCorrection(CorrectionFeed.SPAWN, aircraft);
+                }
+                result.put("id", aircraft.getId());
+                result.put("callSign", aircraft.getCallSign());
+                return true;
+            }
+            case BatchOperation.REMOVE -> {
+                boolean removed;
+                if (airspace != null) {
+                    removed = airspace.remove(operation.getId());
+                } else {
+                    Aircraft aircraft = aircrafts.remove(operation.getId());
+                    if (aircraft != null) {
+                        publishCorrection(CorrectionFeed.DESPAWN, aircraft);
+                    }
+                    removed = aircraft != null;
+                }
+                result.put("id", operation.getId());
+                result.put("applied", removed);
+                return removed;
+            }
+            default -> {
+                boolean applied = airspace != null
+                        ? airspace.steer(new VelocityCommand(operation.getId(),
+                                operation.getVelocityX(), operation.getVelocityY())) != null
+                        : steerOwned(operation.getId(), operation.getVelocityX(), operation.getVelocityY()) != null;
+                result.put("id", operation.getId());
+                result.put("applied", applied);
+                return false;
+            }
+        }
+    }
+
+    // Sets an owned aircraft's velocity and announces any change; null if the id is not owned here
+    private Aircraft steerOwned(String id, double velocityX, double velocityY) {
+        Aircraft aircraft = aircrafts.get(id);
+        if (aircraft != null) {
+            long epoch = aircraft.getVelocityEpoch();
+            aircraft.setVelocity(velocityX, velocityY);
+            if (aircraft.getVelocityEpoch() != epoch) {
+                publishCorrection(CorrectionFeed.VELOCITY, aircraft);
+            }
+        }
         return aircraft;
     }
 
+    private static void validate(BatchOperation operation, int index) {
+        if (operation == null || operation.getOp() == null) {
+            throw new IllegalArgumentException("Operation " + index + " has no op");
+        }
+        switch (operation.getOp()) {
+            case BatchOperation.SPAWN -> {
+                if (operation.getX() == null || operation.getY() == null) {
+                    throw new IllegalArgumentException("Operation " + index + ": spawn needs x and y");
+                }
+            }
+            case BatchOperation.REMOVE -> {
+                if (operation.getId() == null) {
+                    throw new IllegalArgumentException("Operation " + index + ": remove needs an id");
+                }
+            }
+            case BatchOperation.VELOCITY -> {
+                if (operation.getId() == null || operation.getVelocityX() == null
+                        || operation.getVelocityY() == null) {
+                    throw new IllegalArgumentException(
+                            "Operation " + index + ": velocity needs id, velocityX and velocityY");
+                }
+            }
+            default -> throw new IllegalArgumentException(
+                    "Operation " + index + " has unknown op '" + operation.getOp() + "'");
+        }
+    }
+
+    // Apply an explicit track update between ticks, creating the aircraft the first time its id
+    // is seen. Returns null for a track whose aircraft was destroyed in a collision during a replay.
+    // A sectored airspace returns a copy of the owning sector's aircraft.
+    public Aircraft applyTrack(String id, double x, double y, double velocityX, double velocityY,
+                               double altitude, double verticalSpeed) {
+        synchronized (tickLock) {
+            if (game != null && game.hasCollided(id)) {
+                return null;
+            }
+            if (airspace != null) {
+                return airspace.applyTrack(id, x, y, velocityX, velocityY, altitude, verticalSpeed).toAircraft();
+            }
+            Aircraft aircraft = aircrafts.get(id);
+            if (aircraft == null) {
+                aircraft = new Aircraft(id, x, y, velocityX, velocityY, altitude, verticalSpeed);
+                aircraft.setCallSign(id);
+                aircrafts.put(id, aircraft);
+                refreshFleet();
+                publishCorrection(CorrectionFeed.SPAWN, aircraft);
+                return aircraft;
+            }
+            long epoch = aircraft.getVelocityEpoch();
+            aircraft.setX(x);
+            aircraft.setY(y);
+            aircraft.setVelocity(velocityX, velocityY);
+            aircraft.setAltitude(altitude);
+            aircraft.setVerticalSpeed(verticalSpeed);
+            if (aircraft.getVelocityEpoch() != epoch) {
+                publishCorrection(CorrectionFeed.VELOCITY, aircraft);
+            }
+            return aircraft;
+        }
+    }
+
+    public void setReplayMode(boolean replayMode) {
+        synchronized (tickLock) {
+            game.setReplayMode(replayMode);
+        }
+    }
+
+    public boolean isReplayMode() {
+        return game.isReplayMode();
+    }
+
     public Aircraft addRandomAircraft() {
         double margin = 50.0;
         double x = margin + Math.random() * (CANVAS_WIDTH - 2 * margin);
@@ -47,84 +320,329 @@ public class AirTrafficService {
         return addAircraft(x, y);
     }
 
+    // In a sectored airspace, copies built from the sectors' state
     public Collection<Aircraft> getAllAircrafts() {
+        if (airspace != null) {
+            synchronized (tickLock) {
+                return airspace.getAllAircrafts();
+            }
+        }
         return aircrafts.values();
     }
 
+    public boolean hasAircraft(String id) {
+        return findAircraft(id) != null;
+    }
+
+    // The live aircraft with this id, or null; in a sectored airspace, a copy of the owner's state
+    Aircraft findAircraft(String id) {
+        if (airspace != null) {
+            synchronized (tickLock) {
+                AircraftState aircraft = airspace.find(id);
+                return aircraft != null ? aircraft.toAircraft() : null;
+            }
+        }
+        return aircrafts.get(id);
+    }
+
     public void updatePositions() {
-        for (Aircraft aircraft : aircrafts.values()) {
+        synchronized (tickLock) {
+            if (airspace != null) {
+                airspace.tick();
+                tickCount++;
+                tickTimeMillis = System.currentTimeMillis();
+                if (flightRecorder != null) {
+                    airspace.record(flightRecorder, tickTimeMillis);
+                }
+                return;
+            }
+            Aircraft[] moved = fleet;
+            advance(moved);
+            tickCount++;
+            tickTimeMillis = System.currentTimeMillis();
+            detect();
+            if (flightRecorder != null) {
+                // The pre-detection snapshot still includes aircraft that just collided
+                flightRecorder.record(tickTimeMillis, moved, activeConflicts, collidedAircraft);
+            }
+        }
+    }
+
+    /**
+     * Positions as of the last tick, stamped with that tick so clients can dead-reckon from it.
+     * Each aircraft moves {@code velocity * deltaTime} per tick of {@code tickMillis} until a
+     * correction with a newer velocity epoch arrives.
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Map<String, Aircraft> copies = new LinkedHashMap<>();
+        List<Conflict> conflicts;
+        synchronized (tickLock) {
+            for (Aircraft aircraft : getAllAircrafts()) {
+                copies.put(aircraft.getId(), aircraft.copy());
+            }
+            // Conflicts share the aircraft copies, so the whole snapshot is one tick
+            conflicts = copyConflicts(copies);
+            snapshot.put("tick", tickCount);
+            snapshot.put("tickTimeMillis", tickTimeMillis);
+        }
+        snapshot.put("serverTimeMillis", System.currentTimeMillis());
+        snapshot.put("tickMillis", TICK_MILLIS);
+        snapshot.put("deltaTime", DELTA_TIME);
+        snapshot.put("aircraft", new ArrayList<>(copies.values()));
+        snapshot.put("conflicts", conflicts);
+        return snapshot;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    private static void advance(Aircraft[] snapshot) {
+        for (Aircraft aircraft : snapshot) {
             aircraft.updatePosition(DELTA_TIME);
         }
-        detectConflicts();
     }
 
     public List<Conflict> detectConflicts() {
-        activeConflicts.clear();
-        List<Aircraft> aircraftList = new ArrayList<>(aircrafts.values());
-        List<String[]> collisionPairs = new ArrayList<>();
-        
-        for (int i = 0; i < aircraftList.size(); i++) {
-            for (int j = i + 1; j < aircraftList.size(); j++) {
-                Aircraft a1 = aircraftList.get(i);
-                Aircraft a2 = aircraftList.get(j);
-                double distance = a1.distanceTo(a2);
-                
-                if (distance < COLLISION_DISTANCE) {
-                    // Actual collision - planes blow up
-                    double midX = (a1.getX() + a2.getX()) / 2;
-                    double midY = (a1.getY() + a2.getY()) / 2;
-                    recentExplosions.add(new double[]{midX, midY});
-                    collisionPairs.add(new String[]{a1.getId(), a2.getId()});
-                    totalCollisionCount++;
-                    lives--;
-                    if (lives <= 0) {
-                        gameOver = true;
+        // Sectors detect as part of their tick
+        if (airspace == null) {
+            detect();
+        }
+        return getActiveConflicts();
+    }
+
+    // Detection phase of a tick; results stay in the pooled activeConflicts until the next one
+    void detect() {
+        Aircraft[] snapshot = fleet;
+        Aircraft[] border = ghosts;
+        int owned = snapshot.length;
+        int count = owned + border.length;
+
+        synchronized (tickLock) {
+            // Owned aircraft first, ghosts after, so an index tells which is which
+            if (candidates.length < count) {
+                candidates = new Aircraft[Math.max(count, candidates.length * 2)];
+            }
+            System.arraycopy(snapshot, 0, candidates, 0, owned);
+            System.arraycopy(border, 0, candidates, owned, border.length);
+
+            activeConflicts.clear();
+            collidedAircraft.clear();
+            destroyedAircraft.clear();
+            collisionCount = 0;
+            pooledConflicts = 0;
+            indexByBand(candidates, count, owned);
+            for (int band = 0; band < BAND_COUNT; band++) {
+                // Pairs within this band, then pairs with the band directly above.
+                // Within a band owned aircraft sort before ghosts, so ghosts only scan owned ranges.
+                int bandEnd = bandStart[band + 1];
+                int neighbourEnd = band + 1 < BAND_COUNT ? bandStart[band + 2] : bandEnd;
+                int neighbourOwnedEnd = band + 1 < BAND_COUNT ? bandOwnedEnd[band + 1] : bandEnd;
+                for (int i = bandStart[band]; i < bandEnd; i++) {
+                    int first = bandOrder[i];
+                    if (first < owned) {
+                        for (int j = i + 1; j < neighbourEnd; j++) {
+                            int second = bandOrder[j];
+                            checkPair(candidates[first], candidates[second], second >= owned);
+                        }
+                    } else {
+                        for (int j = bandEnd; j < neighbourOwnedEnd; j++) {
+                            checkPair(candidates[bandOrder[j]], candidates[first], true);
+                        }
                     }
-                } else if (distance < MIN_SEPARATION) {
-                    Conflict conflict = new Conflict(a1, a2, distance, "danger");
-                    activeConflicts.add(conflict);
-                } else if (distance < WARNING_DISTANCE) {
-                    Conflict conflict = new Conflict(a1, a2, distance, "warning");
-                    activeConflicts.add(conflict);
+                }
+            }
+            Arrays.fill(candidates, 0, count, null);
+
+            // Remove collided aircraft after iteration
+            if (!collidedAircraft.isEmpty()) {
+                for (Aircraft aircraft : collidedAircraft) {
+                    // A ghost's owner removes and announces it in its own sector
+                    if (aircrafts.remove(aircraft.getId()) != null) {
+                        publishCorrection(CorrectionFeed.DESPAWN, aircraft);
+                        destroyedAircraft.add(aircraft);
+                    }
+                }
+                refreshFleet();
+            }
+            // A sector has no game; its coordinator applies these from the tick report instead
+            if (game != null) {
+                for (int i = 0; i < collisionCount; i++) {
+                    game.recordCollision(collisionPoints[i * 2], collisionPoints[i * 2 + 1]);
+                }
+                for (int i = 0; i < destroyedAircraft.size(); i++) {
+                    game.recordCollided(destroyedAircraft.get(i).getId());
                 }
             }
         }
-        
-        // Remove collided aircraft after iteration
-        for (String[] pair : collisionPairs) {
-            aircrafts.remove(pair[0]);
-            aircrafts.remove(pair[1]);
+    }
+
+    // For a ghost pair a1 is owned and a2 is the ghost. Both sectors see such a pair, so only the
+    // one owning the lower id reports it; the other still removes its own half of a collision.
+    private void checkPair(Aircraft a1, Aircraft a2, boolean ghostPair) {
+        double distance = a1.distanceTo(a2);
+        double verticalDistance = a1.verticalDistanceTo(a2);
+        if (distance >= WARNING_DISTANCE || verticalDistance >= WARNING_VERTICAL_DISTANCE) {
+            return;
+        }
+        boolean reported = !ghostPair || a1.getId().compareTo(a2.getId()) < 0;
+
+        if (distance < COLLISION_DISTANCE && verticalDistance < VERTICAL_COLLISION_DISTANCE) {
+            collidedAircraft.add(a1);
+            collidedAircraft.add(a2);
+            if (!reported) {
+                return;
+            }
+            // Actual collision - planes blow up
+            double midX = (a1.getX() + a2.getX()) / 2;
+            double midY = (a1.getY() + a2.getY()) / 2;
+            if (collisionCount * 2 == collisionPoints.length) {
+                collisionPoints = Arrays.copyOf(collisionPoints, collisionPoints.length * 2);
+            }
+            collisionPoints[collisionCount * 2] = midX;
+            collisionPoints[collisionCount * 2 + 1] = midY;
+            collisionCount++;
+        } else if (!reported) {
+            return;
+        } else if (distance < MIN_SEPARATION && verticalDistance < MIN_VERTICAL_SEPARATION) {
+            activeConflicts.add(pooledConflict(a1, a2, distance, "danger"));
+        } else {
+            activeConflicts.add(pooledConflict(a1, a2, distance, "warning"));
         }
-        
-        return activeConflicts;
     }
 
+    // Counting sort of candidate indices by flight-level band into bandOrder
+    private void indexByBand(Aircraft[] snapshot, int count, int owned) {
+        if (bandOf.length < count) {
+            bandOf = new int[Math.max(count, bandOf.length * 2)];
+            bandOrder = new int[bandOf.length];
+        }
+        Arrays.fill(bandStart, 0);
+        for (int i = 0; i < count; i++) {
+            int band = (int) (snapshot[i].getAltitude() / FLIGHT_LEVEL_BAND);
+            bandOf[i] = band;
+            bandStart[band + 1]++;
+        }
+        for (int band = 0; band < BAND_COUNT; band++) {
+            bandStart[band + 1] += bandStart[band];
+        }
+        // bandStart[band] is used as a cursor while filling, then shifted back.
+        // The fill is stable, so each band lists owned indices before ghost indices.
+        for (int i = 0; i < owned; i++) {
+            bandOrder[bandStart[bandOf[i]]++] = i;
+        }
+        System.arraycopy(bandStart, 0, bandOwnedEnd, 0, BAND_COUNT);
+        for (int i = owned; i < count; i++) {
+            bandOrder[bandStart[bandOf[i]]++] = i;
+        }
+        for (int band = BAND_COUNT; band > 0; band--) {
+            bandStart[band] = bandStart[band - 1];
+        }
+        bandStart[0] = 0;
+    }
+
+    private Conflict pooledConflict(Aircraft a1, Aircraft a2, double distance, String severity) {
+        List<Conflict> pool = conflictPool;
+        if (pooledConflicts < pool.size()) {
+            Conflict conflict = pool.get(pooledConflicts++);
+            conflict.reset(a1, a2, distance, severity);
+            return conflict;
+        }
+        Conflict conflict = new Conflict(a1, a2, distance, severity);
+        pool.add(conflict);
+        pooledConflicts++;
+        return conflict;
+    }
+
+    private void clearConflicts() {
+        synchronized (tickLock) {
+            activeConflicts.clear();
+        }
+    }
+
+    // Copies of the last tick's conflicts. Each aircraft is copied once into copies, keyed by id,
+    // unless the caller already put a copy there. Callers hold tickLock.
+    private List<Conflict> copyConflicts(Map<String, Aircraft> copies) {
+        List<Conflict> detected = airspace != null ? airspace.getActiveConflicts() : activeConflicts;
+        List<Conflict> result = new ArrayList<>(detected.size());
+        for (Conflict conflict : detected) {
+            Conflict copy = new Conflict(
+                    copies.computeIfAbsent(conflict.getAircraft1().getId(), id -> conflict.getAircraft1().copy()),
+                    copies.computeIfAbsent(conflict.getAircraft2().getId(), id -> conflict.getAircraft2().copy()),
+                    conflict.getDistance(), conflict.getSeverity());
+            copy.setResolution(conflict.getResolution());
+            copy.setResolved(conflict.isResolved());
+            result.add(copy);
+        }
+        return result;
+    }
+
+    // The pooled conflict of the last tick between the same pair, or null; callers hold tickLock
+    private Conflict detectedConflict(Conflict conflict) {
+        List<Conflict> detected = airspace != null ? airspace.getActiveConflicts() : activeConflicts;
+        String id1 = conflict.getAircraft1().getId();
+        String id2 = conflict.getAircraft2().getId();
+        for (Conflict candidate : detected) {
+            if (candidate.getAircraft1().getId().equals(id1) && candidate.getAircraft2().getId().equals(id2)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void publishCorrection(String type, Aircraft aircraft) {
+        CorrectionFeed feed = correctionFeed;
+        if (feed != null) {
+            feed.publish(type, tickCount, tickTimeMillis, aircraft);
+        }
+    }
+
+    private void publishDespawnAll() {
+        for (Aircraft aircraft : fleet) {
+            publishCorrection(CorrectionFeed.DESPAWN, aircraft);
+        }
+    }
+
+    // Rebuild the tick snapshot; only called when the fleet membership changes
+    private synchronized void refreshFleet() {
+        fleet = aircrafts.values().toArray(EMPTY_FLEET);
+    }
+
+    // A copy: the tick reuses its conflicts, so handing those out would race with the next tick
     public List<Conflict> getActiveConflicts() {
-        return new ArrayList<>(activeConflicts);
+        synchronized (tickLock) {
+            return copyConflicts(new HashMap<>());
+        }
+    }
+
+    // Conflicts hold copies of their aircraft; steer from the owner's current state instead
+    private Aircraft owned(Aircraft aircraft) {
+        Aircraft live = findAircraft(aircraft.getId());
+        return live != null ? live : aircraft;
     }
 
     public boolean recordTap(String aircraftId) {
-        if (tappedAircraftIds.contains(aircraftId)) {
+        if (game.isTapped(aircraftId)) {
             return false;
         }
-        Conflict matchedConflict = activeConflicts.stream().filter(c ->
+        Aircraft tapped = null;
+        Aircraft other = null;
+        Conflict matchedConflict = getActiveConflicts().stream().filter(c ->
                 !c.isResolved() && (c.getAircraft1().getId().equals(aircraftId)
                         || c.getAircraft2().getId().equals(aircraftId)))
                 .findFirst().orElse(null);
         if (matchedConflict != null) {
-            tappedAircraftIds.add(aircraftId);
-            tappedCollisionCount++;
-
-            // Turn the tapped aircraft away from the other
-            Aircraft tapped = matchedConflict.getAircraft1().getId().equals(aircraftId)
+            tapped = matchedConflict.getAircraft1().getId().equals(aircraftId)
                     ? matchedConflict.getAircraft1() : matchedConflict.getAircraft2();
-            Aircraft other = matchedConflict.getAircraft1().getId().equals(aircraftId)
+            other = matchedConflict.getAircraft1().getId().equals(aircraftId)
                     ? matchedConflict.getAircraft2() : matchedConflict.getAircraft1();
-            turnAway(tapped, other);
+        }
+        if (tapped != null) {
+            game.recordTap(aircraftId);
 
-            if (tappedCollisionCount > 0 && tappedCollisionCount % 10 == 0) {
-                level++;
-            }
+            // Turn the tapped aircraft away from the other
+            turnAway(owned(tapped), owned(other));
             return true;
         }
         return false;
@@ -142,14 +660,26 @@ public class AirTrafficService {
                     + tapped.getVelocityY() * tapped.getVelocityY());
             // Ensure a minimum speed so stationary aircraft still move away
             if (speed < MIN_TURN_SPEED) speed = MIN_TURN_SPEED;
-            tapped.setVelocityX(-dx * speed);
-            tapped.setVelocityY(-dy * speed);
+            steer(tapped, -dx * speed, -dy * speed);
+        }
+    }
+
+    // Steers an aircraft from owned(). In a sectored airspace that is a copy, so the velocity goes
+    // to the owning sector as a command, and the sector announces it.
+    private void steer(Aircraft aircraft, double velocityX, double velocityY) {
+        aircraft.setVelocity(velocityX, velocityY);
+        if (airspace != null) {
+            synchronized (tickLock) {
+                airspace.steer(new VelocityCommand(aircraft.getId(), velocityX, velocityY));
+            }
+        } else {
+            publishCorrection(CorrectionFeed.VELOCITY, aircraft);
         }
     }
 
     public void resolveConflict(Conflict conflict) {
-        Aircraft a1 = conflict.getAircraft1();
-        Aircraft a2 = conflict.getAircraft2();
+        Aircraft a1 = owned(conflict.getAircraft1());
+        Aircraft a2 = owned(conflict.getAircraft2());
         
         // AI-based resolution: adjust velocities to avoid collision
         double dx = a2.getX() - a1.getX();
@@ -162,12 +692,10 @@ public class AirTrafficService {
             dy /= distance;
             
             // Adjust a1 to move away from a2
-            a1.setVelocityX(a1.getVelocityX() - dx * 0.5);
-            a1.setVelocityY(a1.getVelocityY() - dy * 0.5);
+            steer(a1, a1.getVelocityX() - dx * 0.5, a1.getVelocityY() - dy * 0.5);
             
             // Adjust a2 to move away from a1
-            a2.setVelocityX(a2.getVelocityX() + dx * 0.5);
-            a2.setVelocityY(a2.getVelocityY() + dy * 0.5);
+            steer(a2, a2.getVelocityX() + dx * 0.5, a2.getVelocityY() + dy * 0.5);
             
             String resolution = String.format(
                 "%s: Turn %s, %s: Turn %s - Conflict resolved",
@@ -179,6 +707,14 @@ public class AirTrafficService {
             
             conflict.setResolution(resolution);
             conflict.setResolved(true);
+            // The caller holds a copy; mark the tick's own conflict so later reads see it resolved
+            synchronized (tickLock) {
+                Conflict detected = detectedConflict(conflict);
+                if (detected != null) {
+                    detected.setResolution(resolution);
+                    detected.setResolved(true);
+                }
+            }
         }
     }
 
@@ -191,77 +727,235 @@ public class AirTrafficService {
     }
 
     public double getSpeedMultiplier() {
-        return 1.0 + (level - 1) * 0.3;
+        return 1.0 + (game.getLevel() - 1) * 0.3;
     }
 
     public int getTargetAircraftCount() {
-        return 2 + level;
+        return 2 + game.getLevel();
     }
 
     public int getLevel() {
-        return level;
+        return game.getLevel();
     }
 
     public int getLives() {
-        return lives;
+        return game.getLives();
     }
 
     public int getTotalCollisionCount() {
-        return totalCollisionCount;
+        return game.getTotalCollisionCount();
     }
 
     public int getTappedCollisionCount() {
-        return tappedCollisionCount;
+        return game.getTappedCollisionCount();
     }
 
     public boolean isGameOver() {
-        return gameOver;
+        return game.isGameOver();
     }
 
     public Map<String, Object> getGameState() {
         Map<String, Object> state = new LinkedHashMap<>();
-        state.put("level", level);
-        state.put("lives", lives);
-        state.put("totalCollisions", totalCollisionCount);
-        state.put("tappedCollisions", tappedCollisionCount);
-        state.put("gameOver", gameOver);
+        state.put("level", game.getLevel());
+        state.put("lives", game.getLives());
+        state.put("totalCollisions", game.getTotalCollisionCount());
+        state.put("tappedCollisions", game.getTappedCollisionCount());
+        state.put("gameOver", game.isGameOver());
         state.put("targetAircraftCount", getTargetAircraftCount());
         state.put("speedMultiplier", getSpeedMultiplier());
         // Include recent explosions and clear them
-        List<double[]> explosions;
-        synchronized (recentExplosions) {
-            explosions = new ArrayList<>(recentExplosions);
-            recentExplosions.clear();
-        }
-        List<Map<String, Double>> explosionList = new ArrayList<>();
-        for (double[] pos : explosions) {
-            Map<String, Double> exp = new LinkedHashMap<>();
-            exp.put("x", pos[0]);
-            exp.put("y", pos[1]);
-            explosionList.add(exp);
-        }
-        state.put("explosions", explosionList);
+        state.put("explosions", game.drainExplosions());
         return state;
     }
 
     public void resetGame() {
-        aircrafts.clear();
-        activeConflicts.clear();
-        tappedAircraftIds.clear();
-        recentExplosions.clear();
-        level = 1;
-        lives = 3;
-        totalCollisionCount = 0;
-        tappedCollisionCount = 0;
-        gameOver = false;
+        clearAll();
+        game.reset();
     }
 
     public void removeAircraft(String id) {
-        aircrafts.remove(id);
+        if (airspace != null) {
+            synchronized (tickLock) {
+                airspace.remove(id);
+            }
+            return;
+        }
+        Aircraft removed = aircrafts.remove(id);
+        if (removed != null) {
+            refreshFleet();
+            publishCorrection(CorrectionFeed.DESPAWN, removed);
+        }
     }
 
     public void clearAll() {
+        if (airspace != null) {
+            synchronized (tickLock) {
+                airspace.clearAll();
+            }
+            return;
+        }
+        publishDespawnAll();
         aircrafts.clear();
-        activeConflicts.clear();
+        refreshFleet();
+        clearConflicts();
+    }
+
+    /**
+     * This service as one sector of a partitioned airspace. Only messages go in or out, so the
+     * coordinator and the other sectors never hold this service's aircraft. Membership changes
+     * between ticks rebuild the fleet snapshot once, before the next phase reads it.
+     */
+    private final class LocalSector implements Sector {
+        private boolean fleetStale = false;
+
+        @Override
+        public void spawn(AircraftState state) {
+            Aircraft aircraft = state.toAircraft();
+            aircrafts.put(aircraft.getId(), aircraft);
+            fleetStale = true;
+            publishCorrection(CorrectionFeed.SPAWN, aircraft);
+        }
+
+        @Override
+        public AircraftState applyTrack(String id, double x, double y, double velocityX, double velocityY,
+                                        double altitude, double verticalSpeed) {
+            return AircraftState.of(AirTrafficService.this.applyTrack(
+                    id, x, y, velocityX, velocityY, altitude, verticalSpeed));
+        }
+
+        @Override
+        public AircraftState steer(VelocityCommand command) {
+            Aircraft aircraft = steerOwned(command.aircraftId(), command.velocityX(), command.velocityY());
+            return aircraft != null ? AircraftState.of(aircraft) : null;
+        }
+
+        @Override
+        public boolean remove(String id) {
+            Aircraft removed = aircrafts.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            fleetStale = true;
+            publishCorrection(CorrectionFeed.DESPAWN, removed);
+            return true;
+        }
+
+        @Override
+        public AircraftState find(String id) {
+            Aircraft aircraft = aircrafts.get(id);
+            return aircraft != null ? AircraftState.of(aircraft) : null;
+        }
+
+        @Override
+        public List<AircraftState> aircraft() {
+            List<AircraftState> states = new ArrayList<>(aircrafts.size());
+            for (Aircraft aircraft : aircrafts.values()) {
+                states.add(AircraftState.of(aircraft));
+            }
+            return states;
+        }
+
+        @Override
+        public void clear() {
+            refreshIfStale();
+            clearAll();
+        }
+
+        @Override
+        public void setCorrectionFeed(CorrectionFeed correctionFeed) {
+            AirTrafficService.this.setCorrectionFeed(correctionFeed);
+        }
+
+        @Override
+        public void advance() {
+            refreshIfStale();
+            AirTrafficService.advance(fleet);
+            tickCount++;
+            tickTimeMillis = System.currentTimeMillis();
+        }
+
+        @Override
+        public List<AircraftState> handOff(double minX, double maxX) {
+            refreshIfStale();
+            List<AircraftState> released = new ArrayList<>();
+            for (Aircraft aircraft : fleet) {
+                if (aircraft.getX() < minX || aircraft.getX() >= maxX) {
+                    aircrafts.remove(aircraft.getId());
+                    released.add(AircraftState.of(aircraft));
+                }
+            }
+            if (!released.isEmpty()) {
+                refreshFleet();
+            }
+            return released;
+        }
+
+        @Override
+        public void adopt(List<AircraftState> arrivals) {
+            if (arrivals.isEmpty()) {
+                return;
+            }
+            for (AircraftState arrival : arrivals) {
+                aircrafts.put(arrival.id(), arrival.toAircraft());
+            }
+            refreshFleet();
+        }
+
+        @Override
+        public List<AircraftState> copyBetween(double minX, double maxX) {
+            refreshIfStale();
+            List<AircraftState> copies = new ArrayList<>();
+            for (Aircraft aircraft : fleet) {
+                if (aircraft.getX() >= minX && aircraft.getX() < maxX) {
+                    copies.add(AircraftState.of(aircraft));
+                }
+            }
+            return copies;
+        }
+
+        @Override
+        public void setGhosts(List<AircraftState> ghostStates) {
+            Aircraft[] built = new Aircraft[ghostStates.size()];
+            for (int i = 0; i < built.length; i++) {
+                built[i] = ghostStates.get(i).toAircraft();
+            }
+            ghosts = built;
+        }
+
+        @Override
+        public TickReport detect() {
+            refreshIfStale();
+            AirTrafficService.this.detect();
+            List<ConflictReport> conflicts = new ArrayList<>(activeConflicts.size());
+            // An aircraft is usually in several conflicts; send its state once
+            Set<Aircraft> named = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<AircraftState> conflictAircraft = new ArrayList<>();
+            for (Conflict conflict : activeConflicts) {
+                conflicts.add(new ConflictReport(conflict.getAircraft1().getId(), conflict.getAircraft2().getId(),
+                        conflict.getDistance(), conflict.getSeverity()));
+                if (named.add(conflict.getAircraft1())) {
+                    conflictAircraft.add(AircraftState.of(conflict.getAircraft1()));
+                }
+                if (named.add(conflict.getAircraft2())) {
+                    conflictAircraft.add(AircraftState.of(conflict.getAircraft2()));
+                }
+            }
+            List<Collision> collisions = new ArrayList<>(collisionCount);
+            for (int i = 0; i < collisionCount; i++) {
+                collisions.add(new Collision(collisionPoints[i * 2], collisionPoints[i * 2 + 1]));
+            }
+            List<AircraftState> destroyed = new ArrayList<>(destroyedAircraft.size());
+            for (Aircraft aircraft : destroyedAircraft) {
+                destroyed.add(AircraftState.of(aircraft));
+            }
+            return new TickReport(conflicts, conflictAircraft, collisions, destroyed);
+        }
+
+        private void refreshIfStale() {
+            if (fleetStale) {
+                refreshFleet();
+                fleetStale = false;
+            }
+        }
     }
 }
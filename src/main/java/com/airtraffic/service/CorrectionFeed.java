@@ -0,0 +1,171 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes dead-reckoning corrections to clients over server-sent events. Between corrections every
+ * aircraft flies a straight line at its snapshot velocity, so a client can extrapolate positions
+ * locally and only needs an occasional full snapshot.
+ * <p>
+ * The tick only queues each batch per subscriber; sends run on a small fixed pool, one at a time per
+ * subscriber, so a slow client cannot delay the tick. A client that falls too far behind is dropped.
+ */
+@Service
+public class CorrectionFeed {
+    public static final String SPAWN = "spawn";
+    public static final String VELOCITY = "velocity";
+    public static final String DESPAWN = "despawn";
+    // EventSource reconnects by itself when a subscription times out
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    // Unsent batches a subscriber may have queued, about five seconds of ticks
+    static final int MAX_BACKLOG = 50;
+    // A stalled client pins a sender until its socket times out, so the pool must not grow with them
+    static final int SENDER_THREADS = 4;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Map<String, Object>> pending = new ArrayList<>();
+    private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "correction-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Spawn and velocity corrections carry a copy of the aircraft as it was at the change, which is
+    // where the tick stamped with tickTimeMillis left it
+    public void publish(String type, long tick, long tickTimeMillis, Aircraft aircraft) {
+        if (subscribers.isEmpty()) {
+            return; // New subscribers start from a snapshot, so nothing needs to be kept
+        }
+        Map<String, Object> correction = new LinkedHashMap<>();
+        correction.put("type", type);
+        correction.put("tick", tick);
+        correction.put("tickTimeMillis", tickTimeMillis);
+        correction.put("id", aircraft.getId());
+        if (!DESPAWN.equals(type)) {
+            correction.put("aircraft", aircraft.copy());
+        }
+        synchronized (pending) {
+            pending.add(correction);
+        }
+    }
+
+    // Queues everything published since the last flush as a single event per subscriber
+    public void flush() {
+        List<Map<String, Object>> corrections = drain();
+        if (corrections.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            boolean startSending;
+            synchronized (subscriber) {
+                if (subscriber.closed) {
+                    continue;
+                }
+                if (subscriber.backlog.size() >= MAX_BACKLOG) {
+                    // Too far behind to catch up; it can reconnect and start from a fresh snapshot
+                    close(subscriber);
+                    if (!subscriber.sending) {
+                        subscriber.emitter.complete();
+                    } // Otherwise the sender completes it once its send returns
+                    continue;
+                }
+                subscriber.backlog.add(corrections);
+                startSending = !subscriber.sending;
+                subscriber.sending = true;
+            }
+            if (startSending) {
+                sender.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    // Runs on the sender pool until the subscriber's backlog is empty
+    private void send(Subscriber subscriber) {
+        while (true) {
+            List<Map<String, Object>> corrections;
+            synchronized (subscriber) {
+                if (subscriber.closed) {
+                    subscriber.sending = false;
+                    subscriber.emitter.complete();
+                    return;
+                }
+                corrections = subscriber.backlog.poll();
+                if (corrections == null) {
+                    subscriber.sending = false;
+                    return;
+                }
+            }
+            try {
+                subscriber.emitter.send(corrections, MediaType.APPLICATION_JSON);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter itself
+                synchronized (subscriber) {
+                    close(subscriber);
+                    subscriber.sending = false;
+                }
+                return;
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.backlog.clear();
+        subscribers.remove(subscriber);
+    }
+
+    List<Map<String, Object>> drain() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Map<String, Object>> drained = new ArrayList<>(pending);
+            pending.clear();
+            return drained;
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        // Guarded by the subscriber's lock
+        final Queue<List<Map<String, Object>>> backlog = new ArrayDeque<>();
+        boolean sending = false;
+        boolean closed = false;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
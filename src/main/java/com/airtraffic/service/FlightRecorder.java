@@ -0,0 +1,653 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.model.TrackPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling per-tick history of every aircraft's position, heading, altitude and conflict state.
+ *
+ * <p>Each tick becomes one frame of bit-packed columns in a fixed set of off-heap segments.
+ * Positions, heading and altitude are quantised and stored as the change since the same
+ * aircraft's value in the previous frame. A keyframe stores absolute values. One starts every
+ * segment and every {@value #KEYFRAME_INTERVAL} frames, so any frame can be decoded from a
+ * nearby keyframe. Segments are reused oldest-first, so memory stays fixed however long
+ * the simulation runs.
+ */
+@Service
+public class FlightRecorder {
+    private static final int SEGMENT_COUNT = 16;
+    private static final int KEYFRAME_INTERVAL = 64;
+    private static final int NOMINAL_TICKS_PER_SECOND = 10;
+    // Quantisation: 1/16 pixel positions, 4096 heading steps, 10 ft altitude
+    private static final double POSITION_SCALE = 16.0;
+    private static final int HEADING_STEPS = 4096;
+    private static final double ALTITUDE_STEP = 10.0;
+    private static final int COLUMNS = 4; // x, y, heading, altitude
+    private static final int SLOT_COLUMN = COLUMNS;
+    private static final byte FLAG_KEYFRAME = 1;
+    private static final byte FLAG_SAME_SLOTS = 2;
+    private static final int STATE_WARNING = 1;
+    private static final int STATE_DANGER = 2;
+    private static final int STATE_COLLISION = 3;
+    private static final String[] STATE_NAMES = {"none", "warning", "danger", "collision"};
+    // Lock-free reads that keep losing to segment reuse; the last attempt holds the lock
+    private static final int MAX_QUERY_ATTEMPTS = 4;
+
+    private final long retentionMillis;
+    private final ByteBuffer[] segments = new ByteBuffer[SEGMENT_COUNT];
+    private final int segmentBytes;
+    private int currentSegment = 0;
+    private int writePos = 0;
+    // Bumped each time a segment is reused, so a reader without the lock can tell its frames are gone
+    private final AtomicLongArray segmentEpochs = new AtomicLongArray(SEGMENT_COUNT);
+
+    // Ring index of retained frames; the frame at frameHead always is a keyframe
+    private final long[] frameTime;
+    private final int[] frameSegment;
+    private final int[] frameOffset;
+    private final boolean[] frameKey;
+    private int frameHead = 0;
+    private int frameCount = 0;
+    private long oldestSeq = 0;
+    private long nextSeq = 0;
+    private int framesSinceKeyframe = 0;
+
+    // Aircraft ids map to small reusable slots; a slot is freed once no retained frame uses it
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] idBySlot = new String[64];
+    private long[] lastSeenSeq = new long[64];
+    private long[] previousValues = new long[64 * COLUMNS];
+    private byte[] stateBySlot = new byte[64];
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount = 0;
+    private int slotHighWater = 0;
+
+    // Per-frame scratch, reused between ticks
+    private int[] frameSlots = new int[64];
+    private int[] previousFrameSlots = new int[64];
+    private int previousFrameCount = -1;
+    private long[] columnValues = new long[64 * (COLUMNS + 1)];
+    private long bitBuffer;
+    private int bitCount;
+
+    private long droppedFrames = 0;
+    private long bytesWritten = 0;
+    private long aircraftFramesWritten = 0;
+
+    public FlightRecorder(@Value("${airtraffic.recorder.retention-minutes:5}") double retentionMinutes,
+                          @Value("${airtraffic.recorder.max-bytes:16777216}") long maxBytes) {
+        if (retentionMinutes <= 0 || maxBytes < SEGMENT_COUNT * 1024L) {
+            throw new IllegalArgumentException("Recorder needs a positive retention and at least "
+                    + SEGMENT_COUNT + " KB");
+        }
+        this.retentionMillis = (long) (retentionMinutes * 60_000);
+        this.segmentBytes = (int) Math.min(maxBytes / SEGMENT_COUNT, Integer.MAX_VALUE);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes);
+        }
+        int maxFrames = (int) Math.max(4L * KEYFRAME_INTERVAL,
+                2 * retentionMillis * NOMINAL_TICKS_PER_SECOND / 1000);
+        this.frameTime = new long[maxFrames];
+        this.frameSegment = new int[maxFrames];
+        this.frameOffset = new int[maxFrames];
+        this.frameKey = new boolean[maxFrames];
+    }
+
+    /**
+     * Appends one frame. {@code fleet} is the tick's fleet before collided aircraft were removed;
+     * {@code conflicts} and {@code collided} are that tick's detection results.
+     */
+    public synchronized void record(long timeMillis, Aircraft[] fleet, List<Conflict> conflicts,
+                                    List<Aircraft> collided) {
+        int count = fleet.length;
+        int bound = 5 + (COLUMNS + 1) * (9 + (count * 35 + 7) / 8) + (count * 2 + 7) / 8;
+        if (bound > segmentBytes) {
+            droppedFrames++;
+            return;
+        }
+        ensureFrameCapacity(count);
+
+        // Evict before assigning slots, so slot release cannot touch this frame's aircraft
+        dropExpired(timeMillis);
+        boolean keyframe = previousFrameCount < 0 || framesSinceKeyframe >= KEYFRAME_INTERVAL;
+        if (writePos + bound > segmentBytes) {
+            startNextSegment();
+            keyframe = true;
+        }
+        if (frameCount == frameTime.length) {
+            dropOldestChain();
+        }
+
+        for (int i = 0; i < count; i++) {
+            int slot = slotFor(fleet[i].getId());
+            frameSlots[i] = slot;
+            stateBySlot[slot] = 0;
+        }
+        for (int i = 0; i < conflicts.size(); i++) {
+            Conflict conflict = conflicts.get(i);
+            int state = "danger".equals(conflict.getSeverity()) ? STATE_DANGER : STATE_WARNING;
+            markState(conflict.getAircraft1(), state);
+            markState(conflict.getAircraft2(), state);
+        }
+        for (int i = 0; i < collided.size(); i++) {
+            markState(collided.get(i), STATE_COLLISION);
+        }
+
+        long seq = nextSeq;
+        boolean sameSlots = !keyframe && count == previousFrameCount;
+        for (int i = 0; sameSlots && i < count; i++) {
+            sameSlots = frameSlots[i] == previousFrameSlots[i];
+        }
+        for (int i = 0; i < count; i++) {
+            Aircraft aircraft = fleet[i];
+            int slot = frameSlots[i];
+            boolean delta = !keyframe && lastSeenSeq[slot] == seq - 1;
+            encode(i, count, 0, slot, delta, quantise(aircraft.getX() * POSITION_SCALE));
+            encode(i, count, 1, slot, delta, quantise(aircraft.getY() * POSITION_SCALE));
+            encode(i, count, 2, slot, delta,
+                    Math.floorMod(Math.round(aircraft.getHeading() * HEADING_STEPS / 360.0), HEADING_STEPS));
+            encode(i, count, 3, slot, delta, quantise(aircraft.getAltitude() / ALTITUDE_STEP));
+            columnValues[SLOT_COLUMN * count + i] = slot;
+            lastSeenSeq[slot] = seq;
+        }
+
+        ByteBuffer segment = segments[currentSegment];
+        int frameStart = writePos;
+        segment.putInt(writePos, count);
+        segment.put(writePos + 4, (byte) ((keyframe ? FLAG_KEYFRAME : 0) | (sameSlots ? FLAG_SAME_SLOTS : 0)));
+        writePos += 5;
+        if (!sameSlots) {
+            writeColumn(segment, SLOT_COLUMN * count, count);
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            writeColumn(segment, column * count, count);
+        }
+        for (int i = 0; i < count; i++) {
+            writeBits(segment, stateBySlot[frameSlots[i]], 2);
+        }
+        flushBits(segment);
+
+        int index = (frameHead + frameCount) % frameTime.length;
+        frameTime[index] = timeMillis;
+        frameSegment[index] = currentSegment;
+        frameOffset[index] = frameStart;
+        frameKey[index] = keyframe;
+        frameCount++;
+        nextSeq++;
+        framesSinceKeyframe = keyframe ? 1 : framesSinceKeyframe + 1;
+        bytesWritten += writePos - frameStart;
+        aircraftFramesWritten += count;
+
+        int[] swap = previousFrameSlots;
+        previousFrameSlots = frameSlots;
+        frameSlots = swap;
+        previousFrameCount = count;
+    }
+
+    /**
+     * Decodes retained frames between {@code fromMillis} and {@code toMillis} inclusive. A null
+     * aircraft id matches every aircraft, and a null region matches everywhere. A region is
+     * {minX, minY, maxX, maxY}.
+     */
+    public List<TrackPoint> query(String aircraftId, long fromMillis, long toMillis, double[] region) {
+        return query(aircraftId, fromMillis, toMillis, region, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #query(String, long, long, double[])}, but gives up with an
+     * {@link IllegalArgumentException} as soon as more than {@code maxPoints} points match.
+     *
+     * <p>Only the frame index is copied under the recorder's lock; frames are decoded without it,
+     * so a long query does not hold up the tick. A segment that is reused while its frames are
+     * being read invalidates the read, and the query starts again from a fresh index.
+     */
+    public List<TrackPoint> query(String aircraftId, long fromMillis, long toMillis, double[] region,
+                                  int maxPoints) {
+        for (int attempt = 1; attempt < MAX_QUERY_ATTEMPTS; attempt++) {
+            FrameRange range = captureFrames(aircraftId, fromMillis, toMillis);
+            if (range == null) {
+                return new ArrayList<>();
+            }
+            List<TrackPoint> points = decode(range, region, maxPoints);
+            if (points != null) {
+                return points;
+            }
+        }
+        // Recording keeps overtaking this reader, so finish with the writer held off
+        synchronized (this) {
+            FrameRange range = captureFrames(aircraftId, fromMillis, toMillis);
+            return range == null ? new ArrayList<>() : decode(range, region, maxPoints);
+        }
+    }
+
+    // Copies the index of the frames a query needs, from the keyframe opening the chain that holds
+    // the first frame in the window. Returns null for an aircraft that no retained frame contains.
+    private synchronized FrameRange captureFrames(String aircraftId, long fromMillis, long toMillis) {
+        int targetSlot = -1;
+        if (aircraftId != null) {
+            Integer slot = slotById.get(aircraftId);
+            if (slot == null) {
+                return null;
+            }
+            targetSlot = slot;
+        }
+        int start = 0;
+        int end = 0;
+        boolean reachedWindow = false;
+        for (; end < frameCount; end++) {
+            int index = (frameHead + end) % frameTime.length;
+            if (frameTime[index] > toMillis) {
+                break;
+            }
+            if (!reachedWindow && frameKey[index]) {
+                start = end;
+            }
+            reachedWindow |= frameTime[index] >= fromMillis;
+        }
+        FrameRange range = new FrameRange(reachedWindow ? end - start : 0, oldestSeq + start, fromMillis,
+                Arrays.copyOf(idBySlot, slotHighWater), targetSlot);
+        for (int k = 0; k < range.count; k++) {
+            int index = (frameHead + start + k) % frameTime.length;
+            range.time[k] = frameTime[index];
+            range.segment[k] = frameSegment[index];
+            range.offset[k] = frameOffset[index];
+            range.epoch[k] = segmentEpochs.get(frameSegment[index]);
+        }
+        return range;
+    }
+
+    // Decodes a captured range without the lock; null if a segment was reused during the read
+    private List<TrackPoint> decode(FrameRange range, double[] region, int maxPoints) {
+        List<TrackPoint> points = new ArrayList<>();
+        int slotCount = range.idBySlot.length;
+        long[] values = new long[range.targetSlot < 0 ? slotCount * COLUMNS : COLUMNS];
+        long[] seen = new long[range.targetSlot < 0 ? slotCount : 1];
+        Arrays.fill(seen, -2);
+        int[] slots = new int[0];
+        long[] decoded = new long[0];
+        int targetIndex = -1;
+
+        for (int k = 0; k < range.count; k++) {
+            ByteBuffer segment = segments[range.segment[k]];
+            long seq = range.firstSeq + k;
+            boolean inWindow = range.time[k] >= range.fromMillis;
+            try {
+                int pos = range.offset[k];
+                int count = segment.getInt(pos);
+                byte flags = segment.get(pos + 4);
+                boolean keyframe = (flags & FLAG_KEYFRAME) != 0;
+                pos += 5;
+                if (count < 0 || count > slotCount) {
+                    throw new IllegalStateException("Corrupt frame header in flight recorder");
+                }
+
+                if (range.targetSlot >= 0) {
+                    // Read only the target's value from each fixed-width column
+                    if ((flags & FLAG_SAME_SLOTS) == 0) {
+                        targetIndex = indexOf(segment, pos, count, range.targetSlot);
+                        pos = skipColumn(segment, pos, count);
+                    }
+                    if (targetIndex >= 0) {
+                        boolean delta = !keyframe && seen[0] == seq - 1;
+                        for (int column = 0; column < COLUMNS; column++) {
+                            long value = unzigzag(readValue(segment, pos, targetIndex));
+                            values[column] = delta ? values[column] + value : value;
+                            pos = skipColumn(segment, pos, count);
+                        }
+                        seen[0] = seq;
+                        int state = (segment.get(pos + targetIndex / 4) >>> (targetIndex % 4 * 2)) & 3;
+                        if (inWindow) {
+                            addPoint(points, maxPoints, region, range.time[k],
+                                    range.idBySlot[range.targetSlot], values, 0, state);
+                        }
+                    }
+                } else {
+                    if (decoded.length < count * (COLUMNS + 1)) {
+                        decoded = new long[count * (COLUMNS + 1)];
+                    }
+                    if ((flags & FLAG_SAME_SLOTS) == 0) {
+                        pos = readColumn(segment, pos, decoded, SLOT_COLUMN * count, count);
+                        slots = new int[count];
+                        for (int i = 0; i < count; i++) {
+                            slots[i] = (int) decoded[SLOT_COLUMN * count + i];
+                        }
+                    }
+                    for (int column = 0; column < COLUMNS; column++) {
+                        pos = readColumn(segment, pos, decoded, column * count, count);
+                    }
+                    long stateBits = 0;
+                    int stateBitCount = 0;
+                    for (int i = 0; i < count; i++) {
+                        int slot = slots[i];
+                        boolean delta = !keyframe && seen[slot] == seq - 1;
+                        for (int column = 0; column < COLUMNS; column++) {
+                            long value = unzigzag(decoded[column * count + i]);
+                            values[slot * COLUMNS + column] = delta ? values[slot * COLUMNS + column] + value : value;
+                        }
+                        seen[slot] = seq;
+
+                        if (stateBitCount < 2) {
+                            stateBits |= (segment.get(pos++) & 0xFFL) << stateBitCount;
+                            stateBitCount += 8;
+                        }
+                        int state = (int) (stateBits & 3);
+                        stateBits >>>= 2;
+                        stateBitCount -= 2;
+
+                        if (inWindow) {
+                            addPoint(points, maxPoints, region, range.time[k],
+                                    range.idBySlot[slot], values, slot * COLUMNS, state);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Reading a segment while it is rewritten can yield any garbage
+                if (overwritten(range, k)) {
+                    return null;
+                }
+                throw e;
+            }
+            if (overwritten(range, k)) {
+                return null;
+            }
+        }
+        return points;
+    }
+
+    private static void addPoint(List<TrackPoint> points, int maxPoints, double[] region, long timeMillis,
+                                 String id, long[] values, int base, int state) {
+        double x = values[base] / POSITION_SCALE;
+        double y = values[base + 1] / POSITION_SCALE;
+        if (region != null && (x < region[0] || y < region[1] || x > region[2] || y > region[3])) {
+            return;
+        }
+        if (points.size() == maxPoints) {
+            throw new IllegalArgumentException("History query matches more than " + maxPoints
+                    + " points; narrow the time range or region");
+        }
+        double heading = values[base + 2] * 360.0 / HEADING_STEPS;
+        if (heading > 180) {
+            heading -= 360;
+        }
+        points.add(new TrackPoint(timeMillis, id, x, y, heading, values[base + 3] * ALTITUDE_STEP,
+                STATE_NAMES[state]));
+    }
+
+    // Seqlock-style check: the writer bumps a segment's epoch before it rewrites the segment
+    private boolean overwritten(FrameRange range, int k) {
+        VarHandle.acquireFence();
+        return segmentEpochs.get(range.segment[k]) != range.epoch[k];
+    }
+
+    public synchronized long getOldestTimeMillis() {
+        return frameCount == 0 ? -1 : frameTime[frameHead];
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("frames", frameCount);
+        stats.put("trackedAircraft", slotById.size());
+        stats.put("oldestTimeMillis", getOldestTimeMillis());
+        stats.put("retentionMillis", retentionMillis);
+        stats.put("capacityBytes", (long) segmentBytes * SEGMENT_COUNT);
+        stats.put("bytesPerAircraftFrame",
+                aircraftFramesWritten == 0 ? 0.0 : (double) bytesWritten / aircraftFramesWritten);
+        stats.put("droppedFrames", droppedFrames);
+        return stats;
+    }
+
+    private void encode(int i, int count, int column, int slot, boolean delta, long value) {
+        int key = slot * COLUMNS + column;
+        long stored = delta ? value - previousValues[key] : value;
+        previousValues[key] = value;
+        columnValues[column * count + i] = (stored << 1) ^ (stored >> 63);
+    }
+
+    // Quantised values are clamped to int range so zigzag deltas fit in 34 bits
+    private static long quantise(double value) {
+        return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, Math.round(value)));
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void markState(Aircraft aircraft, int state) {
+        Integer slot = slotById.get(aircraft.getId());
+        if (slot != null && stateBySlot[slot] < state) {
+            stateBySlot[slot] = (byte) state;
+        }
+    }
+
+    private int slotFor(String id) {
+        Integer existing = slotById.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotHighWater++;
+        if (slot >= idBySlot.length) {
+            int size = idBySlot.length * 2;
+            idBySlot = Arrays.copyOf(idBySlot, size);
+            lastSeenSeq = Arrays.copyOf(lastSeenSeq, size);
+            previousValues = Arrays.copyOf(previousValues, size * COLUMNS);
+            stateBySlot = Arrays.copyOf(stateBySlot, size);
+            freeSlots = Arrays.copyOf(freeSlots, size);
+        }
+        idBySlot[slot] = id;
+        lastSeenSeq[slot] = -2;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private void ensureFrameCapacity(int count) {
+        if (frameSlots.length < count) {
+            int size = Math.max(count, frameSlots.length * 2);
+            frameSlots = new int[size];
+            previousFrameSlots = Arrays.copyOf(previousFrameSlots, size);
+            columnValues = new long[size * (COLUMNS + 1)];
+        }
+    }
+
+    private void startNextSegment() {
+        currentSegment = (currentSegment + 1) % SEGMENT_COUNT;
+        writePos = 0;
+        segmentEpochs.incrementAndGet(currentSegment);
+        VarHandle.releaseFence(); // The new epoch is visible before any byte of the segment changes
+        // The reused segment holds the oldest frames, and the next segment opens with a keyframe
+        boolean dropped = false;
+        while (frameCount > 0 && frameSegment[frameHead] == currentSegment) {
+            dropFrame();
+            dropped = true;
+        }
+        if (dropped) {
+            releaseUnusedSlots();
+        }
+    }
+
+    private void dropExpired(long nowMillis) {
+        long cutoff = nowMillis - retentionMillis;
+        boolean dropped = false;
+        while (frameCount > 0) {
+            int end = chainLength();
+            // Keep the newest chain, and only drop a chain once all of it has expired
+            if (end == frameCount || frameTime[(frameHead + end - 1) % frameTime.length] >= cutoff) {
+                break;
+            }
+            for (int i = 0; i < end; i++) {
+                dropFrame();
+            }
+            dropped = true;
+        }
+        if (dropped) {
+            releaseUnusedSlots();
+        }
+    }
+
+    private void dropOldestChain() {
+        int end = chainLength();
+        for (int i = 0; i < end; i++) {
+            dropFrame();
+        }
+        releaseUnusedSlots();
+    }
+
+    // Number of frames from the head keyframe up to the next keyframe
+    private int chainLength() {
+        int end = 1;
+        while (end < frameCount && !frameKey[(frameHead + end) % frameTime.length]) {
+            end++;
+        }
+        return end;
+    }
+
+    private void dropFrame() {
+        frameHead = (frameHead + 1) % frameTime.length;
+        frameCount--;
+        oldestSeq++;
+    }
+
+    private void releaseUnusedSlots() {
+        for (int slot = 0; slot < slotHighWater; slot++) {
+            if (idBySlot[slot] != null && lastSeenSeq[slot] < oldestSeq) {
+                slotById.remove(idBySlot[slot]);
+                idBySlot[slot] = null;
+                freeSlots[freeSlotCount++] = slot;
+            }
+        }
+    }
+
+    // Frame-of-reference bit packing: the column minimum and a bit width, then each value's offset
+    private void writeColumn(ByteBuffer segment, int offset, int count) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = offset; i < offset + count; i++) {
+            min = Math.min(min, columnValues[i]);
+            max = Math.max(max, columnValues[i]);
+        }
+        if (count == 0) {
+            min = max = 0;
+        }
+        int width = 64 - Long.numberOfLeadingZeros(max - min);
+        segment.putLong(writePos, min);
+        segment.put(writePos + 8, (byte) width);
+        writePos += 9;
+        for (int i = offset; i < offset + count; i++) {
+            writeBits(segment, columnValues[i] - min, width);
+        }
+        flushBits(segment);
+    }
+
+    private void writeBits(ByteBuffer segment, long value, int width) {
+        if (width == 0) {
+            return;
+        }
+        bitBuffer |= value << bitCount;
+        bitCount += width;
+        while (bitCount >= 8) {
+            segment.put(writePos++, (byte) bitBuffer);
+            bitBuffer >>>= 8;
+            bitCount -= 8;
+        }
+    }
+
+    private void flushBits(ByteBuffer segment) {
+        if (bitCount > 0) {
+            segment.put(writePos++, (byte) bitBuffer);
+        }
+        bitBuffer = 0;
+        bitCount = 0;
+    }
+
+    // Index of the value equal to wanted in a packed column, or -1
+    private static int indexOf(ByteBuffer segment, int pos, int count, long wanted) {
+        for (int i = 0; i < count; i++) {
+            if (readValue(segment, pos, i) == wanted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // One value of a packed column by index; widths stay well under 57 bits, so 8 bytes suffice
+    private static long readValue(ByteBuffer segment, int pos, int index) {
+        long min = segment.getLong(pos);
+        int width = segment.get(pos + 8);
+        if (width == 0) {
+            return min;
+        }
+        long bit = (long) index * width;
+        int at = pos + 9 + (int) (bit >>> 3);
+        int shift = (int) (bit & 7);
+        long buffer = 0;
+        for (int got = 0; got < width + shift; got += 8) {
+            buffer |= (segment.get(at++) & 0xFFL) << got;
+        }
+        return min + ((buffer >>> shift) & ((1L << width) - 1));
+    }
+
+    private static int skipColumn(ByteBuffer segment, int pos, int count) {
+        int width = segment.get(pos + 8);
+        return pos + 9 + (int) (((long) count * width + 7) / 8);
+    }
+
+    private static int readColumn(ByteBuffer segment, int pos, long[] target, int offset, int count) {
+        long min = segment.getLong(pos);
+        int width = segment.get(pos + 8);
+        pos += 9;
+        long buffer = 0;
+        int available = 0;
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        for (int i = 0; i < count; i++) {
+            while (available < width) {
+                buffer |= (segment.get(pos++) & 0xFFL) << available;
+                available += 8;
+            }
+            target[offset + i] = min + (buffer & mask);
+            buffer >>>= width;
+            available -= width;
+        }
+        return pos;
+    }
+
+    // The part of the frame index a query needs, copied under the lock
+    private static final class FrameRange {
+        final int count;
+        final long firstSeq;
+        final long fromMillis;
+        final long[] time;
+        final int[] segment;
+        final int[] offset;
+        final long[] epoch;
+        final String[] idBySlot;
+        final int targetSlot; // -1 for every aircraft
+
+        FrameRange(int count, long firstSeq, long fromMillis, String[] idBySlot, int targetSlot) {
+            this.count = count;
+            this.firstSeq = firstSeq;
+            this.fromMillis = fromMillis;
+            this.time = new long[count];
+            this.segment = new int[count];
+            this.offset = new int[count];
+            this.epoch = new long[count];
+            this.idBySlot = idBySlot;
+            this.targetSlot = targetSlot;
+        }
+    }
+}
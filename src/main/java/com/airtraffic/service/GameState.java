@@ -0,0 +1,123 @@
+package com.airtraffic.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Level, lives, scores and pending explosions for one game. A partitioned airspace keeps a single
+ * instance in its coordinator, which applies every sector's collisions to it, so the game plays
+ * the same however the traffic is split. Requests read it while ticks update it, so updates are
+ * made under the instance lock.
+ */
+final class GameState {
+    private static final int STARTING_LIVES = 3;
+
+    private volatile int level = 1;
+    private volatile int lives = STARTING_LIVES;
+    private volatile int totalCollisionCount = 0;
+    private volatile int tappedCollisionCount = 0;
+    private volatile boolean gameOver = false;
+    private final Set<String> tappedAircraftIds = new HashSet<>();
+    private double[] explosionCoords = new double[16]; // packed x, y pairs
+    private int explosionCount = 0;
+    // While a replay drives the traffic, collisions cost no lives and collided tracks stay gone
+    private volatile boolean replayMode = false;
+    private final Set<String> collidedTrackIds = ConcurrentHashMap.newKeySet();
+
+    synchronized void recordCollision(double x, double y) {
+        if (explosionCount * 2 == explosionCoords.length) {
+            explosionCoords = Arrays.copyOf(explosionCoords, explosionCoords.length * 2);
+        }
+        explosionCoords[explosionCount * 2] = x;
+        explosionCoords[explosionCount * 2 + 1] = y;
+        explosionCount++;
+        totalCollisionCount++;
+        if (!replayMode) {
+            lives--;
+            if (lives <= 0) {
+                gameOver = true;
+            }
+        }
+    }
+
+    // Only tracks destroyed during a replay are remembered, so a normal game keeps no history
+    void recordCollided(String aircraftId) {
+        if (replayMode) {
+            collidedTrackIds.add(aircraftId);
+        }
+    }
+
+    boolean hasCollided(String aircraftId) {
+        return collidedTrackIds.contains(aircraftId);
+    }
+
+    synchronized boolean isTapped(String aircraftId) {
+        return tappedAircraftIds.contains(aircraftId);
+    }
+
+    synchronized void recordTap(String aircraftId) {
+        tappedAircraftIds.add(aircraftId);
+        tappedCollisionCount++;
+        if (tappedCollisionCount % 10 == 0) {
+            level++;
+        }
+    }
+
+    // Hands out the explosions since the last call, then forgets them
+    synchronized List<Map<String, Double>> drainExplosions() {
+        List<Map<String, Double>> explosions = new ArrayList<>(explosionCount);
+        for (int i = 0; i < explosionCount; i++) {
+            Map<String, Double> explosion = new LinkedHashMap<>();
+            explosion.put("x", explosionCoords[i * 2]);
+            explosion.put("y", explosionCoords[i * 2 + 1]);
+            explosions.add(explosion);
+        }
+        explosionCount = 0;
+        return explosions;
+    }
+
+    synchronized void setReplayMode(boolean replayMode) {
+        this.replayMode = replayMode;
+        collidedTrackIds.clear();
+    }
+
+    boolean isReplayMode() {
+        return replayMode;
+    }
+
+    synchronized void reset() {
+        tappedAircraftIds.clear();
+        explosionCount = 0;
+        level = 1;
+        lives = STARTING_LIVES;
+        totalCollisionCount = 0;
+        tappedCollisionCount = 0;
+        gameOver = false;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    int getLives() {
+        return lives;
+    }
+
+    int getTotalCollisionCount() {
+        return totalCollisionCount;
+    }
+
+    int getTappedCollisionCount() {
+        return tappedCollisionCount;
+    }
+
+    boolean isGameOver() {
+        return gameOver;
+    }
+}
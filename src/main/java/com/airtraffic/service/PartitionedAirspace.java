@@ -0,0 +1,284 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.service.SectorMessage.AircraftState;
+import com.airtraffic.service.SectorMessage.Collision;
+import com.airtraffic.service.SectorMessage.ConflictReport;
+import com.airtraffic.service.SectorMessage.TickReport;
+import com.airtraffic.service.SectorMessage.VelocityCommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits the airspace into vertical strips, each owned by its own {@link AirTrafficService}
+ * running on its own thread. A tick runs in lock-step phases across all sectors: move, hand off
+ * aircraft that left their strip, exchange ghost copies of aircraft near each border, then detect
+ * conflicts. The phases are separated by barriers, so the combined conflicts and collisions match
+ * a single service running the same fleet.
+ *
+ * <p>Sectors share no objects: they are reached only through {@link Sector}, and everything they
+ * exchange is a {@link SectorMessage}. This class is the coordinator. It routes the messages, and
+ * it keeps the one {@link GameState}, which it updates from each sector's tick report.
+ *
+ * <p>Unlike a single service's tick, a sectored tick allocates: the messages themselves, and the
+ * tasks, futures and result lists of every phase.
+ */
+public class PartitionedAirspace implements AutoCloseable {
+    private static final double WORLD_WIDTH = 800.0;
+    // Anything further from a border than this cannot be in conflict across it
+    private static final double GHOST_WIDTH = AirTrafficService.WARNING_DISTANCE;
+
+    private final Sector[] sectors;
+    private final double sectorWidth;
+    private final ExecutorService executor;
+    private final GameState game;
+    private volatile List<Conflict> activeConflicts = Collections.emptyList();
+    // Owned aircraft the last tick's collisions destroyed, for the flight recorder
+    private List<Aircraft> destroyed = Collections.emptyList();
+
+    public PartitionedAirspace(int sectorCount) {
+        this(sectorCount, new GameState());
+    }
+
+    PartitionedAirspace(int sectorCount, GameState game) {
+        if (sectorCount < 1 || WORLD_WIDTH / sectorCount < GHOST_WIDTH) {
+            throw new IllegalArgumentException("Sector count must be between 1 and "
+                    + (int) (WORLD_WIDTH / GHOST_WIDTH) + ": " + sectorCount);
+        }
+        this.sectors = new Sector[sectorCount];
+        for (int i = 0; i < sectorCount; i++) {
+            sectors[i] = AirTrafficService.newSector();
+        }
+        this.game = game;
+        this.sectorWidth = WORLD_WIDTH / sectorCount;
+        this.executor = Executors.newFixedThreadPool(sectorCount, runnable -> {
+            Thread thread = new Thread(runnable, "airspace-sector");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getSectorCount() {
+        return sectors.length;
+    }
+
+    Sector getSector(int index) {
+        return sectors[index];
+    }
+
+    GameState getGame() {
+        return game;
+    }
+
+    public int sectorIndexFor(double x) {
+        return Math.max(0, Math.min(sectors.length - 1, (int) (x / sectorWidth)));
+    }
+
+    // The sector that owns the aircraft, or null
+    private Sector ownerOf(String id) {
+        for (Sector sector : sectors) {
+            if (sector.find(id) != null) {
+                return sector;
+            }
+        }
+        return null;
+    }
+
+    void spawn(AircraftState aircraft) {
+        sectors[sectorIndexFor(aircraft.x())].spawn(aircraft);
+    }
+
+    // Apply a track update in whichever sector owns the aircraft, or the sector under it if new
+    AircraftState applyTrack(String id, double x, double y, double velocityX, double velocityY,
+                             double altitude, double verticalSpeed) {
+        Sector owner = ownerOf(id);
+        if (owner == null) {
+            owner = sectors[sectorIndexFor(x)];
+        }
+        return owner.applyTrack(id, x, y, velocityX, velocityY, altitude, verticalSpeed);
+    }
+
+    // The aircraft's new state, or null if no sector owns it
+    AircraftState steer(VelocityCommand command) {
+        Sector owner = ownerOf(command.aircraftId());
+        return owner != null ? owner.steer(command) : null;
+    }
+
+    boolean remove(String id) {
+        Sector owner = ownerOf(id);
+        return owner != null && owner.remove(id);
+    }
+
+    AircraftState find(String id) {
+        for (Sector sector : sectors) {
+            AircraftState aircraft = sector.find(id);
+            if (aircraft != null) {
+                return aircraft;
+            }
+        }
+        return null;
+    }
+
+    public void tick() {
+        runPhase(index -> sectors[index].advance());
+        handOff();
+        exchangeGhosts();
+        List<TickReport> reports = collectPhase(index -> sectors[index].detect());
+
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Aircraft> lost = new ArrayList<>();
+        for (TickReport report : reports) {
+            Map<String, Aircraft> named = new HashMap<>();
+            for (AircraftState aircraft : report.conflictAircraft()) {
+                named.put(aircraft.id(), aircraft.toAircraft());
+            }
+            for (ConflictReport conflict : report.conflicts()) {
+                conflicts.add(new Conflict(named.get(conflict.aircraftId1()), named.get(conflict.aircraftId2()),
+                        conflict.distance(), conflict.severity()));
+            }
+            for (Collision collision : report.collisions()) {
+                game.recordCollision(collision.x(), collision.y());
+            }
+            for (AircraftState aircraft : report.destroyed()) {
+                game.recordCollided(aircraft.id());
+                lost.add(aircraft.toAircraft());
+            }
+        }
+        activeConflicts = Collections.unmodifiableList(conflicts);
+        destroyed = lost;
+    }
+
+    // Records the tick just run as one frame, as a single service would have seen it
+    void record(FlightRecorder recorder, long timeMillis) {
+        List<Aircraft> fleet = getAllAircrafts();
+        fleet.addAll(destroyed);
+        recorder.record(timeMillis, fleet.toArray(new Aircraft[0]), activeConflicts, destroyed);
+    }
+
+    void setCorrectionFeed(CorrectionFeed correctionFeed) {
+        for (Sector sector : sectors) {
+            sector.setCorrectionFeed(correctionFeed);
+        }
+    }
+
+    public void clearAll() {
+        for (Sector sector : sectors) {
+            sector.clear();
+            sector.setGhosts(Collections.emptyList());
+        }
+        activeConflicts = Collections.emptyList();
+        destroyed = Collections.emptyList();
+    }
+
+    private void handOff() {
+        List<List<AircraftState>> released = collectPhase(index ->
+                sectors[index].handOff(minX(index), maxX(index)));
+
+        List<List<AircraftState>> arrivals = new ArrayList<>(sectors.length);
+        for (int i = 0; i < sectors.length; i++) {
+            arrivals.add(new ArrayList<>());
+        }
+        for (List<AircraftState> leaving : released) {
+            for (AircraftState aircraft : leaving) {
+                arrivals.get(sectorIndexFor(aircraft.x())).add(aircraft);
+            }
+        }
+        runPhase(index -> sectors[index].adopt(arrivals.get(index)));
+    }
+
+    private void exchangeGhosts() {
+        // Each sector publishes its border aircraft; neighbours take them as ghosts
+        List<List<AircraftState>> towardsLower = collectPhase(index ->
+                sectors[index].copyBetween(minX(index), index * sectorWidth + GHOST_WIDTH));
+        List<List<AircraftState>> towardsHigher = collectPhase(index ->
+                sectors[index].copyBetween((index + 1) * sectorWidth - GHOST_WIDTH, maxX(index)));
+
+        runPhase(index -> {
+            List<AircraftState> ghosts = new ArrayList<>();
+            if (index > 0) {
+                ghosts.addAll(towardsHigher.get(index - 1));
+            }
+            if (index + 1 < sectors.length) {
+                ghosts.addAll(towardsLower.get(index + 1));
+            }
+            sectors[index].setGhosts(ghosts);
+        });
+    }
+
+    // Outer sectors extend to infinity so wrapped or out-of-range positions still have an owner
+    private double minX(int index) {
+        return index == 0 ? Double.NEGATIVE_INFINITY : index * sectorWidth;
+    }
+
+    private double maxX(int index) {
+        return index == sectors.length - 1 ? Double.POSITIVE_INFINITY : (index + 1) * sectorWidth;
+    }
+
+    // Every sector's conflicts from the last tick, combined once when the tick finished
+    public List<Conflict> getActiveConflicts() {
+        return activeConflicts;
+    }
+
+    // Copies built from each sector's state; changing them does not change the sectors
+    public List<Aircraft> getAllAircrafts() {
+        List<Aircraft> aircraft = new ArrayList<>();
+        for (Sector sector : sectors) {
+            for (AircraftState state : sector.aircraft()) {
+                aircraft.add(state.toAircraft());
+            }
+        }
+        return aircraft;
+    }
+
+    public int getTotalCollisionCount() {
+        return game.getTotalCollisionCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private interface SectorTask<T> {
+        T run(int index);
+    }
+
+    private void runPhase(IntConsumer task) {
+        collectPhase(index -> {
+            task.accept(index);
+            return null;
+        });
+    }
+
+    // Run one task per sector in parallel and wait for all of them: the tick's phase barrier
+    private <T> List<T> collectPhase(SectorTask<T> task) {
+        List<Callable<T>> calls = new ArrayList<>(sectors.length);
+        for (int i = 0; i < sectors.length; i++) {
+            int index = i;
+            calls.add(() -> task.run(index));
+        }
+        List<T> results = new ArrayList<>(sectors.length);
+        try {
+            for (Future<T> future : executor.invokeAll(calls)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during sector tick", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sector tick failed", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,55 @@
+package com.airtraffic.service;
+
+import com.airtraffic.service.SectorMessage.AircraftState;
+import com.airtraffic.service.SectorMessage.TickReport;
+import com.airtraffic.service.SectorMessage.VelocityCommand;
+
+import java.util.List;
+
+/**
+ * One sector of a {@link PartitionedAirspace}, as its coordinator sees it. Arguments and results
+ * are plain values or {@link SectorMessage}s, so a sector's aircraft are only ever touched by the
+ * sector itself. Calls are made between ticks or inside one of the coordinator's tick phases,
+ * never concurrently on the same sector.
+ */
+interface Sector {
+
+    // Between ticks
+
+    void spawn(AircraftState aircraft);
+
+    // Applies a track update, creating the aircraft if this sector does not own it yet
+    AircraftState applyTrack(String id, double x, double y, double velocityX, double velocityY,
+                             double altitude, double verticalSpeed);
+
+    // The owned aircraft's new state, or null if this sector does not own it
+    AircraftState steer(VelocityCommand command);
+
+    boolean remove(String id);
+
+    // The owned aircraft's state, or null; ghosts do not count as owned
+    AircraftState find(String id);
+
+    List<AircraftState> aircraft();
+
+    void clear();
+
+    // Where the sector announces spawns, despawns and velocity changes to clients
+    void setCorrectionFeed(CorrectionFeed correctionFeed);
+
+    // Tick phases, in order
+
+    void advance();
+
+    // Gives up every owned aircraft whose x lies outside [minX, maxX)
+    List<AircraftState> handOff(double minX, double maxX);
+
+    void adopt(List<AircraftState> arrivals);
+
+    // Owned aircraft with x in [minX, maxX), for a neighbour's ghost region
+    List<AircraftState> copyBetween(double minX, double maxX);
+
+    void setGhosts(List<AircraftState> ghosts);
+
+    TickReport detect();
+}
@@ -0,0 +1,55 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Everything that crosses a sector boundary in a {@link PartitionedAirspace}: aircraft handed off
+ * or copied as ghosts, steering commands, and each sector's tick report to the coordinator.
+ * Messages hold plain values, never a sector's live objects, and are serializable.
+ */
+interface SectorMessage extends Serializable {
+
+    /** One aircraft's full state; whoever receives it builds an {@link Aircraft} of its own. */
+    record AircraftState(String id, String callSign, double x, double y, double velocityX,
+                         double velocityY, double altitude, double verticalSpeed, long velocityEpoch)
+            implements SectorMessage {
+
+        static AircraftState of(Aircraft aircraft) {
+            return new AircraftState(aircraft.getId(), aircraft.getCallSign(), aircraft.getX(),
+                    aircraft.getY(), aircraft.getVelocityX(), aircraft.getVelocityY(),
+                    aircraft.getAltitude(), aircraft.getVerticalSpeed(), aircraft.getVelocityEpoch());
+        }
+
+        Aircraft toAircraft() {
+            Aircraft aircraft = new Aircraft(id, x, y, velocityX, velocityY, altitude, verticalSpeed);
+            aircraft.setCallSign(callSign);
+            aircraft.setVelocityEpoch(velocityEpoch);
+            return aircraft;
+        }
+    }
+
+    /** Sets an owned aircraft's velocity, for taps, conflict resolution and batch operations. */
+    record VelocityCommand(String aircraftId, double velocityX, double velocityY) implements SectorMessage {
+    }
+
+    /** A conflict a sector reported, between two aircraft its {@link TickReport} carries. */
+    record ConflictReport(String aircraftId1, String aircraftId2, double distance, String severity)
+            implements SectorMessage {
+    }
+
+    /** Midpoint of a collision; a pair across a border is reported by one sector only. */
+    record Collision(double x, double y) implements SectorMessage {
+    }
+
+    /**
+     * What one sector's detection phase hands the coordinator: its conflicts, each aircraft they
+     * name once, as it was when detected, its collisions, and the owned aircraft those collisions
+     * destroyed. The coordinator applies it to the game.
+     */
+    record TickReport(List<ConflictReport> conflicts, List<AircraftState> conflictAircraft,
+                      List<Collision> collisions, List<AircraftState> destroyed) implements SectorMessage {
+    }
+}
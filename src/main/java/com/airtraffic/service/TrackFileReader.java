@@ -0,0 +1,279 @@
+package com.airtraffic.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams recorded track files through memory-mapped windows, so files larger than memory
+ * can be replayed. Rows are parsed straight from the mapped bytes and handed to a
+ * {@link TrackSink}. Instances keep scratch buffers and are not thread-safe.
+ */
+public class TrackFileReader {
+    static final int BINARY_MAGIC = 0x4154524B; // "ATRK"
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_HEADER_BYTES = 8;
+    // long timeMillis, long trackId, float x, y, velocityX, velocityY, altitude, verticalSpeed
+    static final int BINARY_RECORD_BYTES = 40;
+    private static final int CSV_COLUMNS = 8;
+    private static final long DEFAULT_WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final long windowBytes;
+    private final int[] fieldStart = new int[CSV_COLUMNS];
+    private final int[] fieldEnd = new int[CSV_COLUMNS];
+    private final double[] values = new double[CSV_COLUMNS - 1];
+    private byte[] idScratch = new byte[32];
+    // Only the first row that is not blank or a comment may be a header
+    private boolean firstRow;
+
+    public TrackFileReader() {
+        this(DEFAULT_WINDOW_BYTES);
+    }
+
+    TrackFileReader(long windowBytes) {
+        if (windowBytes < BINARY_RECORD_BYTES || windowBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size out of range: " + windowBytes);
+        }
+        this.windowBytes = windowBytes;
+    }
+
+    /** Reads every row of the file into the sink and returns the number of rows delivered. */
+    public long read(Path file, TrackFormat format, TrackSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return format == TrackFormat.BINARY ? readBinary(channel, sink) : readCsv(channel, sink);
+        }
+    }
+
+    private long readCsv(FileChannel channel, TrackSink sink) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long rows = 0;
+        long lineNumber = 0;
+        firstRow = true;
+
+        while (position < size) {
+            int length = (int) Math.min(windowBytes, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean lastWindow = position + length == size;
+            int lineStart = 0;
+
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    lineNumber++;
+                    if (parseCsvRow(window, lineStart, i, lineNumber, sink)) {
+                        rows++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < length) {
+                if (lastWindow) {
+                    // Final row without a trailing newline
+                    lineNumber++;
+                    if (parseCsvRow(window, lineStart, length, lineNumber, sink)) {
+                        rows++;
+                    }
+                    lineStart = length;
+                } else if (lineStart == 0) {
+                    throw new IOException("Track row at line " + (lineNumber + 1) + " exceeds the mapping window");
+                }
+            }
+            // Remap from the start of any row cut off by the window edge
+            position += lineStart;
+        }
+        return rows;
+    }
+
+    private boolean parseCsvRow(ByteBuffer buf, int start, int end, long lineNumber, TrackSink sink)
+            throws IOException {
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start || buf.get(start) == '#') {
+            return false;
+        }
+
+        int columns = 0;
+        int fieldFrom = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buf.get(i) == ',') {
+                if (columns == CSV_COLUMNS) {
+                    throw new IOException("Expected " + CSV_COLUMNS + " columns at line " + lineNumber);
+                }
+                fieldStart[columns] = fieldFrom;
+                fieldEnd[columns] = i;
+                columns++;
+                fieldFrom = i + 1;
+            }
+        }
+        if (firstRow) {
+            firstRow = false;
+            if (!startsNumeric(buf, fieldStart[0], fieldEnd[0])) {
+                return false; // header row
+            }
+        }
+        if (columns != CSV_COLUMNS) {
+            throw new IOException("Expected " + CSV_COLUMNS + " columns at line " + lineNumber);
+        }
+
+        try {
+            values[0] = parseNumber(buf, fieldStart[0], fieldEnd[0]);
+            for (int column = 2; column < CSV_COLUMNS; column++) {
+                values[column - 1] = parseNumber(buf, fieldStart[column], fieldEnd[column]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed number at line " + lineNumber, e);
+        }
+        requireFinite(values, CSV_COLUMNS - 1, "line " + lineNumber);
+        sink.accept((long) values[0], parseId(buf, fieldStart[1], fieldEnd[1]),
+                values[1], values[2], values[3], values[4], values[5], values[6]);
+        return true;
+    }
+
+    // NaN or infinite values would poison conflict detection, which compares them with everything
+    private static void requireFinite(double[] values, int count, String where) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (!Double.isFinite(values[i])) {
+                throw new IOException("Non-finite number at " + where);
+            }
+        }
+    }
+
+    private long readBinary(FileChannel channel, TrackSink sink) throws IOException {
+        long size = channel.size();
+        if (size < BINARY_HEADER_BYTES) {
+            throw new IOException("Track file is missing its header");
+        }
+        ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.getInt(0) != BINARY_MAGIC || header.getInt(4) != BINARY_VERSION) {
+            throw new IOException("Not a version " + BINARY_VERSION + " binary track file");
+        }
+        if ((size - BINARY_HEADER_BYTES) % BINARY_RECORD_BYTES != 0) {
+            throw new IOException("Track file ends with a truncated record");
+        }
+
+        long windowRecords = windowBytes / BINARY_RECORD_BYTES;
+        long position = BINARY_HEADER_BYTES;
+        long rows = 0;
+        while (position < size) {
+            int length = (int) Math.min(windowRecords * BINARY_RECORD_BYTES, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int offset = 0; offset < length; offset += BINARY_RECORD_BYTES) {
+                for (int field = 0; field < 6; field++) {
+                    values[field] = window.getFloat(offset + 16 + field * 4);
+                }
+                requireFinite(values, 6, "record " + (rows + 1));
+                sink.accept(window.getLong(offset), Long.toString(window.getLong(offset + 8)),
+                        values[0], values[1], values[2], values[3], values[4], values[5]);
+                rows++;
+            }
+            position += length;
+        }
+        return rows;
+    }
+
+    private String parseId(ByteBuffer buf, int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+        int length = end - start;
+        if (length > idScratch.length) {
+            idScratch = new byte[length];
+        }
+        buf.get(start, idScratch, 0, length);
+        return new String(idScratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsNumeric(ByteBuffer buf, int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        if (start == end) {
+            return false;
+        }
+        byte b = buf.get(start);
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    // Decimal parser working on the mapped bytes, avoiding a String per field
+    static double parseNumber(ByteBuffer buf, int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDot = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (significantDigits < 18) {
+                    if (mantissa != 0 || b != '0') {
+                        significantDigits++;
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenDot) exponent--;
+                } else if (!seenDot) {
+                    exponent++; // digits beyond long precision still scale the integer part
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else if ((b == 'e' || b == 'E') && digits > 0) {
+                exponent += parseExponent(buf, i + 1, end);
+                i = end;
+            } else {
+                throw new NumberFormatException("Unexpected character '" + (char) b + "'");
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Empty number");
+        }
+
+        double value;
+        if (exponent == 0) {
+            value = mantissa;
+        } else if (exponent > 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            value = mantissa * Math.pow(10, exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    private static int parseExponent(ByteBuffer buf, int start, int end) {
+        boolean negative = false;
+        if (start < end && (buf.get(start) == '-' || buf.get(start) == '+')) {
+            negative = buf.get(start) == '-';
+            start++;
+        }
+        if (start == end) {
+            throw new NumberFormatException("Empty exponent");
+        }
+        int exponent = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Unexpected character '" + (char) b + "'");
+            }
+            exponent = Math.min(exponent * 10 + (b - '0'), 1000);
+        }
+        return negative ? -exponent : exponent;
+    }
+}
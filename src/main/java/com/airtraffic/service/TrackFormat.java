@@ -0,0 +1,14 @@
+package com.airtraffic.service;
+
+import java.util.Locale;
+
+public enum TrackFormat {
+    // Text rows: timeMillis,trackId,x,y,velocityX,velocityY,altitude,verticalSpeed
+    CSV,
+    // "ATRK" header followed by fixed 40-byte big-endian records
+    BINARY;
+
+    public static TrackFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,151 @@
+package com.airtraffic.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@Service
+public class TrackReplayService {
+    private final AirTrafficService airTrafficService;
+    private final Path replayDirectory;
+    private final AtomicLong appliedUpdates = new AtomicLong();
+
+    private Thread replayThread;
+    private volatile boolean running = false;
+    private volatile String currentFile;
+    private volatile TrackFormat currentFormat;
+    private volatile double currentTimeScale;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String lastError;
+
+    public TrackReplayService(AirTrafficService airTrafficService,
+                              @Value("${airtraffic.replay.directory:replays}") String replayDirectory) {
+        this.airTrafficService = airTrafficService;
+        this.replayDirectory = Paths.get(replayDirectory).toAbsolutePath().normalize();
+    }
+
+    // Start replaying a file from the replay directory on a background thread
+    public synchronized Map<String, Object> start(String fileName, TrackFormat format, double timeScale) {
+        if (running) {
+            throw new IllegalStateException("A replay is already running");
+        }
+        Path file = resolve(fileName);
+        running = true;
+        currentFile = fileName;
+        currentFormat = format;
+        currentTimeScale = timeScale;
+        lastError = null;
+        appliedUpdates.set(0);
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+
+        replayThread = new Thread(() -> {
+            try {
+                replay(file, format, timeScale);
+            } catch (CancellationException e) {
+                // Stopped on request
+            } catch (IOException | RuntimeException e) {
+                lastError = e.getMessage();
+            } finally {
+                finishedNanos = System.nanoTime();
+                running = false;
+            }
+        }, "track-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+        return getStatus();
+    }
+
+    public synchronized void stop() {
+        if (replayThread != null) {
+            replayThread.interrupt();
+        }
+    }
+
+    /**
+     * Replays a track file into the simulation on the calling thread. Rows are released when
+     * their recorded time, divided by {@code timeScale}, has elapsed; a non-positive scale
+     * replays as fast as the file can be read. Game rules are suspended until the replay ends.
+     * Returns the number of updates applied.
+     */
+    public long replay(Path file, TrackFormat format, double timeScale) throws IOException {
+        airTrafficService.setReplayMode(true);
+        try {
+            return new TrackFileReader().read(file, format, new PacedSink(timeScale));
+        } finally {
+            airTrafficService.setReplayMode(false);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        long applied = appliedUpdates.get();
+        long end = running || finishedNanos == 0 ? System.nanoTime() : finishedNanos;
+        double seconds = startedNanos == 0 ? 0.0 : (end - startedNanos) / 1e9;
+        status.put("running", running);
+        status.put("file", currentFile);
+        status.put("format", currentFormat);
+        status.put("timeScale", currentTimeScale);
+        status.put("appliedUpdates", applied);
+        status.put("updatesPerSecond", seconds > 0 ? applied / seconds : 0.0);
+        status.put("error", lastError);
+        return status;
+    }
+
+    private Path resolve(String fileName) {
+        Path file = replayDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(replayDirectory)) {
+            throw new IllegalArgumentException("Replay files must be inside " + replayDirectory);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such replay file: " + fileName);
+        }
+        return file;
+    }
+
+    private class PacedSink implements TrackSink {
+        private final double timeScale;
+        private long firstTimeMillis;
+        private long wallStartNanos;
+        private boolean started = false;
+
+        PacedSink(double timeScale) {
+            this.timeScale = timeScale;
+        }
+
+        @Override
+        public void accept(long timeMillis, String trackId, double x, double y, double velocityX,
+                           double velocityY, double altitude, double verticalSpeed) {
+            if (timeScale > 0) {
+                if (!started) {
+                    firstTimeMillis = timeMillis;
+                    wallStartNanos = System.nanoTime();
+                    started = true;
+                }
+                long due = wallStartNanos
+                        + (long) (TimeUnit.MILLISECONDS.toNanos(timeMillis - firstTimeMillis) / timeScale);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Replay stopped");
+            }
+            if (airTrafficService.applyTrack(trackId, x, y, velocityX, velocityY, altitude, verticalSpeed) != null) {
+                appliedUpdates.incrementAndGet();
+            }
+        }
+    }
+}
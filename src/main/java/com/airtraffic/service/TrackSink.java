@@ -0,0 +1,7 @@
+package com.airtraffic.service;
+
+@FunctionalInterface
+public interface TrackSink {
+    void accept(long timeMillis, String trackId, double x, double y, double velocityX, double velocityY,
+                double altitude, double verticalSpeed);
+}
@@ -23,6 +23,16 @@ let explosions = []; // {x, y, frame} for rendering
 
 const AIRCRAFT_HIT_RADIUS = 22;
 const EXPLOSION_MAX_FRAMES = 15;
+const MAX_ALTITUDE = 60000;
+
+// Aircraft fly straight lines between velocity changes, so positions are extrapolated locally.
+// The server pushes corrections on spawn, despawn and velocity change; full snapshots only
+// fix up drift, so they are fetched far less often than the screen is redrawn.
+const RENDER_INTERVAL_MS = 100;
+const REFRESH_INTERVAL_MS = 500;
+let tracks = new Map(); // id -> { aircraft, baseTime } where aircraft is as of baseTime
+let velocityScale = 0.1 / 100; // server deltaTime per tick millisecond
+let serverClockOffset = null; // performance.now() minus server epoch millis, from the last snapshot
 
 // Convert canvas coordinates from event
 function getCanvasCoords(e) {
@@ -174,6 +184,7 @@ restartBtn.addEventListener('click', async () => {
         currentLevel = 1;
         currentLives = 3;
         aircrafts = [];
+        tracks.clear();
         conflicts = [];
         explosions = [];
         flaggedAircraftIds.clear();
@@ -191,6 +202,7 @@ clearBtn.addEventListener('click', async () => {
     try {
         await fetch(`${API_BASE}/aircraft`, { method: 'DELETE' });
         aircrafts = [];
+        tracks.clear();
         conflicts = [];
         explosions = [];
         flaggedAircraftIds.clear();
@@ -199,22 +211,49 @@ clearBtn.addEventListener('click', async () => {
     }
 });
 
-// Fetch and update aircraft positions
-async function updateAircrafts() {
-    try {
-        const response = await fetch(`${API_BASE}/aircraft`);
-        aircrafts = await response.json();
-        aircraftCountEl.textContent = `Aircraft: ${aircrafts.length}`;
-    } catch (error) {
-        console.error('Error fetching aircraft:', error);
+function wrap(value, size) {
+    return ((value % size) + size) % size;
+}
+
+// Dead-reckon every tracked aircraft to the given time, wrapping at the edges like the server
+function extrapolate(now) {
+    const current = [];
+    for (const { aircraft, baseTime } of tracks.values()) {
+        const elapsed = (now - baseTime) * velocityScale;
+        current.push({
+            ...aircraft,
+            x: wrap(aircraft.x + aircraft.velocityX * elapsed, canvas.width),
+            y: wrap(aircraft.y + aircraft.velocityY * elapsed, canvas.height),
+            altitude: Math.max(0, Math.min(MAX_ALTITUDE, aircraft.altitude + aircraft.verticalSpeed * elapsed))
+        });
     }
+    aircrafts = current;
 }
 
-// Fetch conflicts
-async function updateConflicts() {
+// Fetch a full tick-stamped snapshot of aircraft and conflicts
+async function refreshSnapshot() {
     try {
-        const response = await fetch(`${API_BASE}/conflicts`);
-        conflicts = await response.json();
+        const response = await fetch(`${API_BASE}/snapshot`);
+        const snapshot = await response.json();
+        // Positions are as of the last server tick, which ran a little before the response
+        serverClockOffset = performance.now() - snapshot.serverTimeMillis;
+        const baseTime = snapshot.tickTimeMillis + serverClockOffset;
+        velocityScale = snapshot.deltaTime / snapshot.tickMillis;
+
+        const refreshed = new Map();
+        for (const aircraft of snapshot.aircraft) {
+            const known = tracks.get(aircraft.id);
+            // A correction that arrived while the snapshot was in flight is newer
+            if (known && known.aircraft.velocityEpoch > aircraft.velocityEpoch) {
+                refreshed.set(aircraft.id, known);
+            } else {
+                refreshed.set(aircraft.id, { aircraft, baseTime });
+            }
+        }
+        tracks = refreshed;
+        aircraftCountEl.textContent = `Aircraft: ${tracks.size}`;
+
+        conflicts = snapshot.conflicts;
         conflictCountEl.textContent = `Conflicts: ${conflicts.length}`;
 
         // Clear flags for resolved conflicts
@@ -231,10 +270,34 @@ async function updateConflicts() {
 
         updateConflictList();
     } catch (error) {
-        console.error('Error fetching conflicts:', error);
+        console.error('Error fetching snapshot:', error);
     }
 }
 
+// Apply pushed corrections; each batch holds everything that changed during one server tick.
+// A batch can arrive late, so each copy is placed at the tick it was taken from, and one that is
+// no newer than what a snapshot or earlier correction already gave is ignored.
+function applyCorrections(event) {
+    for (const correction of JSON.parse(event.data)) {
+        if (correction.type === 'despawn') {
+            tracks.delete(correction.id);
+            continue;
+        }
+        const known = tracks.get(correction.id);
+        if (known && known.aircraft.velocityEpoch >= correction.aircraft.velocityEpoch) {
+            continue;
+        }
+        const baseTime = serverClockOffset === null
+            ? performance.now()
+            : correction.tickTimeMillis + serverClockOffset;
+        tracks.set(correction.id, { aircraft: correction.aircraft, baseTime });
+    }
+    aircraftCountEl.textContent = `Aircraft: ${tracks.size}`;
+}
+
+const corrections = new EventSource(`${API_BASE}/corrections`);
+corrections.onmessage = applyCorrections;
+
 // Update conflict list display
 function updateConflictList() {
     if (conflicts.length === 0) {
@@ -344,15 +407,16 @@ function drawAircrafts() {
         ctx.stroke();
     }
 
-    // Draw conflict zones
+    // Draw conflict zones around the extrapolated position of the first aircraft
     conflicts.forEach(conflict => {
         if (!conflict.resolved) {
+            const center = aircrafts.find(a => a.id === conflict.aircraft1.id) || conflict.aircraft1;
             const zoneColor = conflict.severity === 'danger'
                 ? 'rgba(255, 0, 0, 0.25)' : 'rgba(255, 152, 0, 0.2)';
             ctx.strokeStyle = zoneColor;
             ctx.lineWidth = 2;
             ctx.beginPath();
-            ctx.arc(conflict.aircraft1.x, conflict.aircraft1.y, 50, 0, 2 * Math.PI);
+            ctx.arc(center.x, center.y, 50, 0, 2 * Math.PI);
             ctx.stroke();
         }
     });
@@ -387,6 +451,8 @@ function drawAircrafts() {
         ctx.fillStyle = labelColor;
         ctx.font = '10px -apple-system, sans-serif';
         ctx.fillText(aircraft.callSign, aircraft.x + 16, aircraft.y - 6);
+        const flightLevel = String(Math.round(aircraft.altitude / 100)).padStart(3, '0');
+        ctx.fillText(`FL${flightLevel}`, aircraft.x + 16, aircraft.y + 6);
 
         // Velocity vector
         const vecColor = severity === 'danger' ? 'rgba(255, 68, 68, 0.4)'
@@ -431,13 +497,17 @@ function drawAircrafts() {
     explosions = activeExplosions;
 }
 
-// Main update loop
-function update() {
-    updateAircrafts();
-    updateConflicts();
-    updateGameState();
+// Redraw from extrapolated positions; refresh from the server less often
+function render() {
+    extrapolate(performance.now());
     drawAircrafts();
 }
 
-setInterval(update, 100);
-update();
+function refresh() {
+    refreshSnapshot();
+    updateGameState();
+}
+
+setInterval(render, RENDER_INTERVAL_MS);
+setInterval(refresh, REFRESH_INTERVAL_MS);
+refresh();
@@ -0,0 +1,31 @@
+package com.airtraffic;
+
+import com.airtraffic.controller.AirTrafficController;
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.model.TrackPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AirTrafficRuntimeHintsTest {
+
+    @Test
+    void testSerializedModelsAreRegistered() {
+        RuntimeHints hints = new RuntimeHints();
+        new AirTrafficRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (Class<?> model : new Class<?>[]{Aircraft.class, Conflict.class, BatchOperation.class, TrackPoint.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(model)
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints), model.getName());
+            assertTrue(RuntimeHintsPredicates.reflection().onType(model)
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints), model.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onType(AirTrafficController.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+    }
+}
@@ -55,4 +55,47 @@ class AircraftTest {
         // Heading should be updated when velocity changes
         assertNotEquals(0, aircraft.getHeading());
     }
+
+    @Test
+    void testAltitudeUpdate() {
+        Aircraft aircraft = new Aircraft("test-id", 100, 200, 0, 0, 10000, 500);
+        aircraft.updatePosition(1.0);
+
+        assertEquals(10500, aircraft.getAltitude(), 0.01);
+        assertEquals(Aircraft.DEFAULT_ALTITUDE, new Aircraft("test-2", 0, 0, 0, 0).getAltitude());
+    }
+
+    @Test
+    void testAltitudeClamping() {
+        Aircraft descending = new Aircraft("test-1", 100, 200, 0, 0, 100, -500);
+        descending.updatePosition(1.0);
+        assertEquals(0, descending.getAltitude(), 0.01);
+
+        Aircraft climbing = new Aircraft("test-2", 100, 200, 0, 0, Aircraft.MAX_ALTITUDE, 500);
+        climbing.updatePosition(1.0);
+        assertEquals(Aircraft.MAX_ALTITUDE, climbing.getAltitude(), 0.01);
+    }
+
+    @Test
+    void testVerticalDistanceTo() {
+        Aircraft aircraft1 = new Aircraft("test-1", 0, 0, 0, 0, 9000, 0);
+        Aircraft aircraft2 = new Aircraft("test-2", 0, 0, 0, 0, 11500, 0);
+
+        assertEquals(2500, aircraft1.verticalDistanceTo(aircraft2), 0.01);
+    }
+
+    @Test
+    void testVelocityEpochCountsChanges() {
+        Aircraft aircraft = new Aircraft("test-id", 100, 200, 1.0, 0);
+        assertEquals(0, aircraft.getVelocityEpoch());
+
+        aircraft.setVelocity(1.0, 0);
+        aircraft.updatePosition(1.0);
+        assertEquals(0, aircraft.getVelocityEpoch());
+
+        aircraft.setVelocity(0, 1.0);
+        aircraft.setVelocityX(2.0);
+        assertEquals(2, aircraft.getVelocityEpoch());
+        assertEquals(2, aircraft.copy().getVelocityEpoch());
+    }
 }
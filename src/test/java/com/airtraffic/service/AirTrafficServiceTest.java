@@ -1,14 +1,19 @@
 package com.airtraffic.service;
 
 import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
 import com.airtraffic.model.Conflict;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class AirTrafficServiceTest {
 
@@ -19,6 +24,11 @@ class AirTrafficServiceTest {
         service = new AirTrafficService();
     }
 
+    @AfterEach
+    void tearDown() {
+        service.setSectorCount(1); // Stops the sector threads of a partitioned airspace
+    }
+
     @Test
     void testAddAircraft() {
         Aircraft aircraft = service.addAircraft(100, 200);
@@ -74,6 +84,90 @@ class AirTrafficServiceTest {
         assertEquals("warning", conflicts.get(0).getSeverity());
     }
 
+    @Test
+    void testVerticallySeparatedAircraftDoNotConflict() {
+        // Horizontally close but 3000 ft apart, so they sit in non-adjacent bands
+        service.addAircraft(100, 100, 10000);
+        service.addAircraft(130, 130, 13000);
+
+        assertEquals(0, service.detectConflicts().size());
+    }
+
+    @Test
+    void testConflictAcrossAdjacentFlightLevelBands() {
+        // 200 ft apart but on either side of a band boundary
+        service.addAircraft(100, 100, 11900);
+        service.addAircraft(130, 130, 12100);
+
+        List<Conflict> conflicts = service.detectConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals("danger", conflicts.get(0).getSeverity());
+    }
+
+    @Test
+    void testVerticalWarningConflict() {
+        // Horizontally in danger range but only inside the vertical warning limit
+        service.addAircraft(100, 100, 10000);
+        service.addAircraft(130, 130, 11500);
+
+        List<Conflict> conflicts = service.detectConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals("warning", conflicts.get(0).getSeverity());
+    }
+
+    @Test
+    void testNoCollisionWhenVerticallySeparated() {
+        service.addAircraft(100, 100, 10000);
+        service.addAircraft(100, 101, 10500);
+
+        service.detectConflicts();
+        assertEquals(2, service.getAllAircrafts().size());
+        assertEquals(3, service.getLives());
+    }
+
+    @Test
+    void testApplyBatch() {
+        Aircraft existing = service.addAircraft(100, 100);
+        Aircraft doomed = service.addAircraft(500, 500);
+
+        List<Map<String, Object>> results = service.applyBatch(Arrays.asList(
+                BatchOperation.spawn(200, 200),
+                BatchOperation.spawn(300, 300),
+                BatchOperation.remove(doomed.getId()),
+                BatchOperation.velocity(existing.getId(), 1.5, -0.5),
+                BatchOperation.remove("missing")));
+
+        assertEquals(5, results.size());
+        assertNotNull(results.get(0).get("id"));
+        assertNotEquals(results.get(0).get("id"), results.get(1).get("id"));
+        assertEquals(true, results.get(2).get("applied"));
+        assertEquals(true, results.get(3).get("applied"));
+        assertEquals(false, results.get(4).get("applied"));
+        assertEquals(3, service.getAllAircrafts().size());
+        assertEquals(1.5, existing.getVelocityX());
+        assertEquals(-0.5, existing.getVelocityY());
+    }
+
+    @Test
+    void testBatchSpawnsJoinTheNextTick() {
+        List<Map<String, Object>> results = service.applyBatch(Arrays.asList(
+                new BatchOperation(BatchOperation.SPAWN, null, 100.0, 100.0, 0.0, 0.0),
+                new BatchOperation(BatchOperation.SPAWN, null, 130.0, 130.0, 0.0, 0.0)));
+
+        service.updatePositions();
+        assertEquals(2, results.size());
+        assertEquals(1, service.getActiveConflicts().size());
+    }
+
+    @Test
+    void testInvalidBatchAppliesNothing() {
+        assertThrows(IllegalArgumentException.class, () -> service.applyBatch(Arrays.asList(
+                BatchOperation.spawn(200, 200),
+                new BatchOperation("teleport", "x", null, null, null, null))));
+
+        assertEquals(0, service.getAllAircrafts().size());
+    }
+
     @Test
     void testResolveConflict() {
         Aircraft a1 = service.addAircraft(100, 100);
@@ -97,6 +191,67 @@ class AirTrafficServiceTest {
         assertNotNull(conflict.getResolution());
     }
 
+    @Test
+    void testActiveConflictsAreCopiesThatKeepResolution() {
+        Aircraft a = service.addAircraft(100, 100);
+        Aircraft b = service.addAircraft(130, 130);
+        a.setVelocity(0, 0);
+        b.setVelocity(0, 0);
+        service.detectConflicts();
+
+        List<Conflict> active = service.getActiveConflicts();
+        service.resolveConflict(active.get(0));
+        assertTrue(service.getActiveConflicts().get(0).isResolved());
+
+        // A later tick neither clears nor rewrites a list already handed out
+        service.clearAll();
+        service.updatePositions();
+        assertTrue(service.getActiveConflicts().isEmpty());
+        assertEquals(1, active.size());
+        assertNotSame(a, active.get(0).getAircraft1());
+    }
+
+    @Test
+    void testConflictsCanBeReadWhileTicking() throws Exception {
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                service.addAircraft(60 + col * 60, 40 + row * 55).setVelocity(0, 0);
+            }
+        }
+        Thread ticker = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                service.updatePositions();
+            }
+        });
+        ticker.start();
+        int read = 0;
+        while (ticker.isAlive()) {
+            for (Conflict conflict : service.getActiveConflicts()) {
+                assertNotNull(conflict.getAircraft1().getId());
+                assertNotNull(conflict.getAircraft2().getId());
+                read++;
+            }
+        }
+        ticker.join();
+        assertTrue(read > 0);
+    }
+
+    @Test
+    void testSnapshotConflictsShareAircraftCopies() {
+        service.addAircraft(100, 100);
+        service.addAircraft(130, 130);
+        service.detectConflicts();
+
+        Map<String, Object> snapshot = service.getSnapshot();
+        @SuppressWarnings("unchecked")
+        List<Aircraft> aircraft = (List<Aircraft>) snapshot.get("aircraft");
+        @SuppressWarnings("unchecked")
+        List<Conflict> conflicts = (List<Conflict>) snapshot.get("conflicts");
+        assertEquals(1, conflicts.size());
+        assertTrue(aircraft.stream().anyMatch(copy -> copy == conflicts.get(0).getAircraft1()));
+        assertTrue(aircraft.stream().anyMatch(copy -> copy == conflicts.get(0).getAircraft2()));
+    }
+
     @Test
     void testRemoveAircraft() {
         Aircraft aircraft = service.addAircraft(100, 200);
@@ -239,4 +394,84 @@ class AirTrafficServiceTest {
         assertEquals(1.0, state.get("speedMultiplier"));
         assertNotNull(state.get("explosions"));
     }
+
+    @Test
+    void testSteadyStateTickAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        service.setFlightRecorder(new FlightRecorder(5, 1 << 20));
+
+        // Stationary grid spaced inside the warning band: conflicts every tick, no collisions
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 8; col++) {
+                Aircraft aircraft = service.addAircraft(60 + col * 90, 60 + row * 90);
+                aircraft.setVelocityX(0);
+                aircraft.setVelocityY(0);
+            }
+        }
+        // Warm up so pooled buffers reach their steady-state size and the tick is JIT-compiled
+        for (int i = 0; i < 20_000; i++) {
+            service.updatePositions();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long calibrationStart = threads.getThreadAllocatedBytes(threadId);
+        long calibrationEnd = threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000; i++) {
+            service.updatePositions();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        assertEquals(0, (after - before) - (calibrationEnd - calibrationStart));
+        assertFalse(service.getActiveConflicts().isEmpty());
+        assertEquals(40, service.getAllAircrafts().size());
+    }
+
+    @Test
+    void testSectoredServiceTicksThroughSectors() {
+        service.setSectorCount(2);
+        service.applyTrack("A1", 395, 300, 100, 0, 10000, 0);
+        service.applyTrack("B1", 100, 300, 0, 0, 10000, 0);
+
+        service.updatePositions();
+
+        assertEquals(2, service.getSectorCount());
+        assertEquals(1, service.getTickCount());
+        assertEquals(2, service.getAllAircrafts().size());
+        assertTrue(service.hasAircraft("A1"));
+        assertEquals(405, service.findAircraft("A1").getX(), 0.01);
+        service.removeAircraft("A1");
+        assertFalse(service.hasAircraft("A1"));
+    }
+
+    @Test
+    void testTapOnCrossBorderConflictSteersOwnedAircraft() {
+        service.setSectorCount(2);
+        service.applyTrack("A1", 380, 300, 0, 0, 10000, 0);
+        service.applyTrack("B2", 420, 300, 0, 0, 10000, 0);
+        service.updatePositions();
+        // The sector owning A1 reports the pair, holding a ghost copy of B2
+        assertEquals(1, service.getActiveConflicts().size());
+
+        assertTrue(service.recordTap("B2"));
+
+        assertTrue(service.findAircraft("B2").getVelocityX() > 0);
+        assertEquals(1, service.getTappedCollisionCount());
+    }
+
+    @Test
+    void testResolveCrossBorderConflictSteersOwnedAircraft() {
+        service.setSectorCount(2);
+        service.applyTrack("A1", 380, 300, 0, 0, 10000, 0);
+        service.applyTrack("B2", 420, 300, 0, 0, 10000, 0);
+        service.updatePositions();
+
+        service.resolveConflict(service.getActiveConflicts().get(0));
+
+        assertTrue(service.findAircraft("A1").getVelocityX() < 0);
+        assertTrue(service.findAircraft("B2").getVelocityX() > 0);
+    }
 }
@@ -0,0 +1,228 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.BatchOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrectionFeedTest {
+
+    private AirTrafficService service;
+    private CorrectionFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        service = new AirTrafficService();
+        feed = new CorrectionFeed();
+        service.setCorrectionFeed(feed);
+        feed.subscribe();
+    }
+
+    @Test
+    void testSteadyFlightPublishesNothing() {
+        service.addAircraft(100, 100);
+        service.addAircraft(500, 400);
+        feed.drain();
+
+        for (int i = 0; i < 50; i++) {
+            service.updatePositions();
+        }
+
+        assertTrue(feed.drain().isEmpty());
+        assertEquals(50, service.getTickCount());
+    }
+
+    @Test
+    void testSpawnVelocityAndDespawnArePublished() {
+        Aircraft aircraft = service.addAircraft(100, 100);
+        service.applyBatch(List.of(BatchOperation.velocity(aircraft.getId(), 3.0, -1.0)));
+        service.removeAircraft(aircraft.getId());
+
+        List<Map<String, Object>> corrections = feed.drain();
+        assertEquals(3, corrections.size());
+        assertEquals(CorrectionFeed.SPAWN, corrections.get(0).get("type"));
+        assertEquals(CorrectionFeed.VELOCITY, corrections.get(1).get("type"));
+        assertEquals(CorrectionFeed.DESPAWN, corrections.get(2).get("type"));
+        for (Map<String, Object> correction : corrections) {
+            assertEquals(aircraft.getId(), correction.get("id"));
+        }
+
+        Aircraft turned = (Aircraft) corrections.get(1).get("aircraft");
+        assertEquals(3.0, turned.getVelocityX());
+        assertEquals(-1.0, turned.getVelocityY());
+        assertEquals(aircraft.getVelocityEpoch(), turned.getVelocityEpoch());
+        assertFalse(corrections.get(2).containsKey("aircraft"));
+    }
+
+    @Test
+    void testCorrectionsAreStampedWithTickTime() {
+        Aircraft aircraft = service.addAircraft(100, 100);
+        service.updatePositions();
+        feed.drain();
+
+        // A change between ticks applies to the position the last tick left the aircraft at
+        service.applyBatch(List.of(BatchOperation.velocity(aircraft.getId(), 3.0, -1.0)));
+
+        Map<String, Object> correction = feed.drain().get(0);
+        Map<String, Object> snapshot = service.getSnapshot();
+        assertEquals(snapshot.get("tick"), correction.get("tick"));
+        assertEquals(snapshot.get("tickTimeMillis"), correction.get("tickTimeMillis"));
+    }
+
+    @Test
+    void testUnchangedTrackVelocityIsNotPublished() {
+        service.applyTrack("alpha", 100, 100, 2, 0, 10000, 0);
+        service.applyTrack("alpha", 110, 100, 2, 0, 10000, 0);
+        service.applyTrack("alpha", 120, 100, 2, 1, 10000, 0);
+
+        List<Map<String, Object>> corrections = feed.drain();
+        assertEquals(2, corrections.size());
+        assertEquals(CorrectionFeed.SPAWN, corrections.get(0).get("type"));
+        assertEquals(CorrectionFeed.VELOCITY, corrections.get(1).get("type"));
+    }
+
+    @Test
+    void testCollisionsArePublishedAsDespawns() {
+        service.applyTrack("alpha", 100, 100, 0, 0, 10000, 0);
+        service.applyTrack("bravo", 100, 105, 0, 0, 10000, 0);
+        feed.drain();
+
+        service.updatePositions();
+
+        List<Map<String, Object>> corrections = feed.drain();
+        assertEquals(2, corrections.size());
+        for (Map<String, Object> correction : corrections) {
+            assertEquals(CorrectionFeed.DESPAWN, correction.get("type"));
+            assertEquals(1L, correction.get("tick"));
+        }
+    }
+
+    @Test
+    void testNothingIsQueuedWithoutSubscribers() {
+        AirTrafficService unwatched = new AirTrafficService();
+        CorrectionFeed idle = new CorrectionFeed();
+        unwatched.setCorrectionFeed(idle);
+
+        unwatched.addAircraft(100, 100);
+
+        assertEquals(0, idle.getSubscriberCount());
+        assertTrue(idle.drain().isEmpty());
+    }
+
+    @Test
+    void testSnapshotIsStampedWithTick() {
+        Aircraft aircraft = service.addAircraft(100, 100);
+        service.updatePositions();
+        service.updatePositions();
+
+        Map<String, Object> snapshot = service.getSnapshot();
+        assertEquals(2L, snapshot.get("tick"));
+        assertEquals(AirTrafficService.TICK_MILLIS, snapshot.get("tickMillis"));
+        assertTrue((Long) snapshot.get("serverTimeMillis") >= (Long) snapshot.get("tickTimeMillis"));
+
+        @SuppressWarnings("unchecked")
+        List<Aircraft> copies = (List<Aircraft>) snapshot.get("aircraft");
+        assertEquals(1, copies.size());
+        assertEquals(aircraft.getX(), copies.get(0).getX());
+        assertEquals(aircraft.getVelocityEpoch(), copies.get(0).getVelocityEpoch());
+    }
+
+    @Test
+    void testBlockedSubscriberDoesNotStallTick() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        feed.subscribe(new BlockingEmitter(release));
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Object object, MediaType mediaType) {
+                delivered.countDown();
+            }
+        });
+        try {
+            service.addAircraft(100, 100);
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                service.updatePositions();
+                feed.flush();
+            });
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testStalledSubscriberIsDropped() {
+        CorrectionFeed stalledFeed = new CorrectionFeed();
+        CountDownLatch release = new CountDownLatch(1);
+        stalledFeed.subscribe(new BlockingEmitter(release));
+        Aircraft aircraft = new Aircraft("alpha", 100, 100, 1, 0);
+        try {
+            for (int i = 0; i < CorrectionFeed.MAX_BACKLOG; i++) {
+                stalledFeed.publish(CorrectionFeed.VELOCITY, i, i * 100L, aircraft);
+                stalledFeed.flush();
+            }
+            assertEquals(1, stalledFeed.getSubscriberCount());
+
+            // Past the backlog limit whether or not the first send has started
+            for (int i = 0; i < 2; i++) {
+                stalledFeed.publish(CorrectionFeed.VELOCITY, CorrectionFeed.MAX_BACKLOG + i, 0, aircraft);
+                stalledFeed.flush();
+            }
+            assertEquals(0, stalledFeed.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testStalledSubscribersDoNotGrowSenderPool() throws InterruptedException {
+        CorrectionFeed stalledFeed = new CorrectionFeed();
+        CountDownLatch release = new CountDownLatch(1);
+        long before = senderThreads();
+        for (int i = 0; i < CorrectionFeed.SENDER_THREADS * 3; i++) {
+            stalledFeed.subscribe(new BlockingEmitter(release));
+        }
+        try {
+            stalledFeed.publish(CorrectionFeed.VELOCITY, 1, 0, new Aircraft("alpha", 100, 100, 1, 0));
+            stalledFeed.flush();
+            Thread.sleep(200);
+            assertTrue(senderThreads() - before <= CorrectionFeed.SENDER_THREADS);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static long senderThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("correction-feed"))
+                .count();
+    }
+
+    // A client whose connection stops draining: every send waits until released
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+
+        BlockingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
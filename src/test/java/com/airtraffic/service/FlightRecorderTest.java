@@ -0,0 +1,334 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.model.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FlightRecorderTest {
+
+    private static final double POSITION_TOLERANCE = 1.0 / 32;
+
+    @Test
+    void testQueryByAircraftReturnsEveryFrame() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Aircraft a = new Aircraft("alpha", 100, 100, 3, 1, 10000, 50);
+        Aircraft b = new Aircraft("bravo", 600, 400, -2, 2);
+        List<double[]> expected = new ArrayList<>();
+
+        for (int tick = 0; tick < 300; tick++) {
+            if (tick == 150) {
+                a.setVelocity(-1, 4);
+            }
+            a.updatePosition(0.1);
+            b.updatePosition(0.1);
+            expected.add(new double[]{a.getX(), a.getY(), a.getHeading(), a.getAltitude()});
+            recorder.record(tick * 100L, new Aircraft[]{a, b}, Collections.emptyList(), Collections.emptyList());
+        }
+
+        List<TrackPoint> history = recorder.query("alpha", 0, Long.MAX_VALUE, null);
+        assertEquals(300, history.size());
+        for (int tick = 0; tick < 300; tick++) {
+            TrackPoint point = history.get(tick);
+            double[] want = expected.get(tick);
+            assertEquals(tick * 100L, point.getTimeMillis());
+            assertEquals("alpha", point.getAircraftId());
+            assertEquals(want[0], point.getX(), POSITION_TOLERANCE);
+            assertEquals(want[1], point.getY(), POSITION_TOLERANCE);
+            assertEquals(want[2], point.getHeading(), 0.1);
+            assertEquals(want[3], point.getAltitude(), 5.0);
+            assertEquals("none", point.getConflictState());
+        }
+    }
+
+    @Test
+    void testQueryRejectsMorePointsThanLimit() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Aircraft a = new Aircraft("alpha", 100, 100, 0, 0);
+        Aircraft b = new Aircraft("bravo", 600, 400, 0, 0);
+        for (int tick = 0; tick < 10; tick++) {
+            recorder.record(tick * 100L, new Aircraft[]{a, b}, Collections.emptyList(), Collections.emptyList());
+        }
+
+        assertEquals(10, recorder.query("alpha", 0, Long.MAX_VALUE, null, 10).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> recorder.query(null, 0, Long.MAX_VALUE, null, 10));
+        assertEquals(20, recorder.query(null, 0, Long.MAX_VALUE, null).size());
+    }
+
+    @Test
+    void testConflictStatesAreRecorded() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Aircraft a = new Aircraft("alpha", 100, 100, 0, 0);
+        Aircraft b = new Aircraft("bravo", 130, 100, 0, 0);
+        Aircraft c = new Aircraft("charlie", 400, 300, 0, 0);
+        Aircraft d = new Aircraft("delta", 405, 300, 0, 0);
+
+        recorder.record(1000, new Aircraft[]{a, b, c, d},
+                List.of(new Conflict(a, b, 30, "danger")), List.of(c, d));
+
+        List<TrackPoint> frame = recorder.query(null, 1000, 1000, null);
+        assertEquals(4, frame.size());
+        assertEquals("danger", frame.get(0).getConflictState());
+        assertEquals("danger", frame.get(1).getConflictState());
+        assertEquals("collision", frame.get(2).getConflictState());
+        assertEquals("collision", frame.get(3).getConflictState());
+    }
+
+    @Test
+    void testQueryByRegionAndTimeWindow() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Aircraft east = new Aircraft("east", 10, 300, 10, 0);
+        Aircraft parked = new Aircraft("parked", 700, 500, 0, 0);
+
+        // 60 one-second ticks take "east" to x = 610, short of the wrap at 800
+        for (int tick = 0; tick < 60; tick++) {
+            east.updatePosition(1.0);
+            recorder.record(tick * 100L, new Aircraft[]{east, parked},
+                    Collections.emptyList(), Collections.emptyList());
+        }
+
+        List<TrackPoint> window = recorder.query(null, 2000, 2900, null);
+        assertEquals(20, window.size());
+
+        List<TrackPoint> region = recorder.query(null, 0, Long.MAX_VALUE, new double[]{0, 250, 200, 350});
+        assertFalse(region.isEmpty());
+        for (TrackPoint point : region) {
+            assertEquals("east", point.getAircraftId());
+            assertTrue(point.getX() <= 200);
+        }
+        // x reaches 200 after 19 one-second ticks
+        assertEquals(19, region.size());
+    }
+
+    @Test
+    void testFleetMembershipChanges() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Random random = new Random(7);
+        List<Aircraft> fleet = new ArrayList<>();
+        List<List<double[]>> expected = new ArrayList<>();
+
+        for (int tick = 0; tick < 200; tick++) {
+            if (random.nextInt(4) == 0 || fleet.isEmpty()) {
+                fleet.add(new Aircraft("ac" + tick, random.nextDouble() * 800, random.nextDouble() * 600,
+                        random.nextDouble() * 4 - 2, random.nextDouble() * 4 - 2));
+            }
+            if (random.nextInt(6) == 0) {
+                fleet.remove(random.nextInt(fleet.size()));
+            }
+            List<double[]> positions = new ArrayList<>();
+            for (Aircraft aircraft : fleet) {
+                aircraft.updatePosition(0.1);
+                positions.add(new double[]{aircraft.getX(), aircraft.getY()});
+            }
+            expected.add(positions);
+            recorder.record(tick * 100L, fleet.toArray(new Aircraft[0]),
+                    Collections.emptyList(), Collections.emptyList());
+        }
+
+        for (int tick = 0; tick < 200; tick++) {
+            List<TrackPoint> frame = recorder.query(null, tick * 100L, tick * 100L, null);
+            List<double[]> positions = expected.get(tick);
+            assertEquals(positions.size(), frame.size());
+            for (int i = 0; i < positions.size(); i++) {
+                assertEquals(positions.get(i)[0], frame.get(i).getX(), POSITION_TOLERANCE);
+                assertEquals(positions.get(i)[1], frame.get(i).getY(), POSITION_TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    void testAircraftQueryMatchesFullDecode() {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        Random random = new Random(11);
+        List<Aircraft> fleet = new ArrayList<>();
+        for (int tick = 0; tick < 300; tick++) {
+            if (random.nextInt(3) == 0 || fleet.size() < 2) {
+                fleet.add(new Aircraft("ac" + tick, random.nextDouble() * 800, random.nextDouble() * 600,
+                        random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20));
+            }
+            if (random.nextInt(5) == 0) {
+                fleet.remove(random.nextInt(fleet.size()));
+            }
+            for (Aircraft aircraft : fleet) {
+                aircraft.updatePosition(0.1);
+            }
+            Aircraft a = fleet.get(random.nextInt(fleet.size()));
+            Aircraft b = fleet.get(random.nextInt(fleet.size()));
+            recorder.record(tick * 100L, fleet.toArray(new Aircraft[0]),
+                    List.of(new Conflict(a, b, 40, tick % 2 == 0 ? "danger" : "warning")),
+                    tick % 7 == 0 ? List.of(a) : Collections.emptyList());
+        }
+
+        List<TrackPoint> all = recorder.query(null, 0, Long.MAX_VALUE, null);
+        for (int tick = 0; tick < 300; tick += 3) {
+            String id = "ac" + tick;
+            List<TrackPoint> expected = all.stream().filter(p -> p.getAircraftId().equals(id)).toList();
+            List<TrackPoint> actual = recorder.query(id, 0, Long.MAX_VALUE, null);
+            assertEquals(expected.size(), actual.size(), id);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getTimeMillis(), actual.get(i).getTimeMillis());
+                assertEquals(expected.get(i).getX(), actual.get(i).getX());
+                assertEquals(expected.get(i).getY(), actual.get(i).getY());
+                assertEquals(expected.get(i).getHeading(), actual.get(i).getHeading());
+                assertEquals(expected.get(i).getAltitude(), actual.get(i).getAltitude());
+                assertEquals(expected.get(i).getConflictState(), actual.get(i).getConflictState());
+            }
+        }
+    }
+
+    @Test
+    void testQueriesStayConsistentWhileSegmentsAreReused() throws Exception {
+        // 4 KB segments fill every few dozen frames, so reads keep racing segment reuse
+        FlightRecorder recorder = new FlightRecorder(60, 64 * 1024);
+        int aircraftCount = 20;
+        recorder.record(0, fleetAt(0, aircraftCount), Collections.emptyList(), Collections.emptyList());
+        Thread writer = new Thread(() -> {
+            for (int tick = 1; tick < 20_000; tick++) {
+                recorder.record(tick * 100L, fleetAt(tick, aircraftCount),
+                        Collections.emptyList(), Collections.emptyList());
+            }
+        });
+        writer.start();
+        int checked = 0;
+        while (writer.isAlive()) {
+            List<TrackPoint> points = checked % 2 == 0
+                    ? recorder.query("ac3", 0, Long.MAX_VALUE, null)
+                    : recorder.query(null, 0, Long.MAX_VALUE, new double[]{0, 0, 800, 200});
+            for (TrackPoint point : points) {
+                int i = Integer.parseInt(point.getAircraftId().substring(2));
+                assertEquals(expectedX(i, point.getTimeMillis() / 100), point.getX(), POSITION_TOLERANCE);
+                assertEquals(i * 20 + 10, point.getY(), POSITION_TOLERANCE);
+            }
+            checked++;
+        }
+        writer.join();
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void testQueryDoesNotBlockRecording() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 26);
+        Aircraft[] fleet = new Aircraft[2000];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = new Aircraft("ac" + i, i % 800, i % 600, 1 + i % 5, -1 - i % 3);
+        }
+        for (int tick = 0; tick < 1500; tick++) {
+            for (Aircraft aircraft : fleet) {
+                aircraft.updatePosition(0.1);
+            }
+            recorder.record(tick * 100L, fleet, Collections.emptyList(), Collections.emptyList());
+        }
+        double[] corner = {0, 0, 10, 10};
+        long started = System.nanoTime();
+        recorder.query(null, 0, Long.MAX_VALUE, corner);
+        long queryNanos = System.nanoTime() - started;
+        assumeTrue(queryNanos > 100_000_000L, "query too fast to overlap with a tick");
+
+        AtomicLong readerNanos = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            long readerStart = System.nanoTime();
+            recorder.query(null, 0, Long.MAX_VALUE, corner);
+            readerNanos.set(System.nanoTime() - readerStart);
+        });
+        reader.start();
+        long slowestRecord = 0;
+        for (int tick = 1500; reader.isAlive(); tick++) {
+            long before = System.nanoTime();
+            recorder.record(tick * 100L, fleet, Collections.emptyList(), Collections.emptyList());
+            slowestRecord = Math.max(slowestRecord, System.nanoTime() - before);
+        }
+        reader.join();
+        // Ticks keep recording while the query decodes, instead of waiting for it to finish
+        assertTrue(slowestRecord < readerNanos.get() / 4, "slowest record " + slowestRecord / 1_000_000
+                + " ms during a " + readerNanos.get() / 1_000_000 + " ms query");
+    }
+
+    private static Aircraft[] fleetAt(int tick, int count) {
+        Aircraft[] fleet = new Aircraft[count];
+        for (int i = 0; i < count; i++) {
+            fleet[i] = new Aircraft("ac" + i, expectedX(i, tick), i * 20 + 10, 0, 0);
+        }
+        return fleet;
+    }
+
+    private static double expectedX(int aircraft, long tick) {
+        return (aircraft * 31 + tick * 0.5) % 800;
+    }
+
+    @Test
+    void testMemoryStaysBounded() {
+        FlightRecorder recorder = new FlightRecorder(60, 64 * 1024);
+        Aircraft[] fleet = new Aircraft[50];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = new Aircraft("ac" + i, i * 15, i * 10, 1 + i % 3, -1 - i % 2);
+        }
+
+        for (int tick = 0; tick < 5000; tick++) {
+            for (Aircraft aircraft : fleet) {
+                aircraft.updatePosition(0.1);
+            }
+            recorder.record(tick * 100L, fleet, Collections.emptyList(), Collections.emptyList());
+        }
+
+        Map<String, Object> stats = recorder.getStats();
+        assertEquals(64 * 1024L, stats.get("capacityBytes"));
+        assertEquals(0L, stats.get("droppedFrames"));
+        assertTrue((Integer) stats.get("frames") < 5000);
+        assertTrue(recorder.getOldestTimeMillis() > 0);
+        // Steady motion costs a few bits per value once keyframes are amortised
+        assertTrue((Double) stats.get("bytesPerAircraftFrame") < 4.0,
+                "bytes per aircraft frame: " + stats.get("bytesPerAircraftFrame"));
+
+        List<TrackPoint> latest = recorder.query("ac7", 499_900, 499_900, null);
+        assertEquals(1, latest.size());
+        assertEquals(fleet[7].getX(), latest.get(0).getX(), POSITION_TOLERANCE);
+        assertEquals(fleet[7].getY(), latest.get(0).getY(), POSITION_TOLERANCE);
+    }
+
+    @Test
+    void testRetentionExpiresOldFrames() {
+        FlightRecorder recorder = new FlightRecorder(0.5, 1 << 20); // 30 seconds
+        Aircraft aircraft = new Aircraft("alpha", 100, 100, 1, 0);
+
+        for (int tick = 0; tick < 1200; tick++) {
+            aircraft.updatePosition(0.1);
+            recorder.record(tick * 100L, new Aircraft[]{aircraft},
+                    Collections.emptyList(), Collections.emptyList());
+        }
+
+        long newest = 1199 * 100L;
+        long oldest = recorder.getOldestTimeMillis();
+        assertTrue(oldest > 0);
+        assertTrue(newest - oldest >= 30_000, "kept " + (newest - oldest) + " ms");
+        // Expiry is per keyframe chain, so at most one chain beyond the retention window is kept
+        assertTrue(newest - oldest < 30_000 + 64 * 100, "kept " + (newest - oldest) + " ms");
+        assertEquals(recorder.query(null, 0, Long.MAX_VALUE, null).get(0).getTimeMillis(), oldest);
+    }
+
+    @Test
+    void testServiceRecordsCollisionsOnTick() {
+        AirTrafficService service = new AirTrafficService();
+        FlightRecorder recorder = new FlightRecorder(5, 1 << 20);
+        service.setFlightRecorder(recorder);
+        Aircraft a = service.applyTrack("alpha", 100, 100, 0, 0, 10000, 0);
+        service.applyTrack("bravo", 100, 105, 0, 0, 10000, 0);
+
+        service.updatePositions();
+
+        assertEquals(0, service.getAllAircrafts().size());
+        List<TrackPoint> history = recorder.query(a.getId(), 0, Long.MAX_VALUE, null);
+        assertEquals(1, history.size());
+        assertEquals("collision", history.get(0).getConflictState());
+    }
+}
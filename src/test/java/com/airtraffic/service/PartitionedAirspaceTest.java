@@ -0,0 +1,193 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import com.airtraffic.model.Conflict;
+import com.airtraffic.service.SectorMessage.AircraftState;
+import com.airtraffic.service.SectorMessage.TickReport;
+import com.airtraffic.service.SectorMessage.VelocityCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedAirspaceTest {
+
+    private PartitionedAirspace airspace;
+
+    @AfterEach
+    void tearDown() {
+        if (airspace != null) {
+            airspace.close();
+        }
+    }
+
+    @Test
+    void testMatchesSingleNodeEngine() {
+        AirTrafficService single = new AirTrafficService();
+        airspace = new PartitionedAirspace(4);
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            String id = String.format("T%03d", i);
+            double x = random.nextDouble() * 800;
+            double y = random.nextDouble() * 600;
+            double vx = (random.nextDouble() - 0.5) * 40;
+            double vy = (random.nextDouble() - 0.5) * 40;
+            double altitude = 10000 + random.nextInt(4) * 1500;
+            single.applyTrack(id, x, y, vx, vy, altitude, 0);
+            airspace.applyTrack(id, x, y, vx, vy, altitude, 0);
+        }
+
+        int conflictsSeen = 0;
+        for (int tick = 0; tick < 200; tick++) {
+            single.updatePositions();
+            airspace.tick();
+
+            Set<String> expected = conflictKeys(single.getActiveConflicts());
+            Set<String> actual = conflictKeys(airspace.getActiveConflicts());
+            assertEquals(expected, actual, "conflicts differ at tick " + tick);
+            assertEquals(single.getActiveConflicts().size(), airspace.getActiveConflicts().size());
+            assertEquals(ids(single.getAllAircrafts()), ids(airspace.getAllAircrafts()));
+            assertEquals(single.getTotalCollisionCount(), airspace.getTotalCollisionCount());
+            assertEquals(single.getLives(), airspace.getGame().getLives());
+            conflictsSeen += expected.size();
+        }
+        assertTrue(conflictsSeen > 0);
+    }
+
+    @Test
+    void testAircraftCrossingBoundaryIsHandedOff() {
+        airspace = new PartitionedAirspace(2);
+        airspace.applyTrack("A1", 395, 300, 100, 0, 10000, 0);
+        assertNotNull(airspace.getSector(0).find("A1"));
+
+        airspace.tick();
+
+        assertNull(airspace.getSector(0).find("A1"));
+        assertNotNull(airspace.getSector(1).find("A1"));
+        assertEquals(405, airspace.getAllAircrafts().get(0).getX(), 0.01);
+    }
+
+    @Test
+    void testCrossBoundaryConflictReportedOnce() {
+        airspace = new PartitionedAirspace(2);
+        airspace.applyTrack("A1", 380, 300, 0, 0, 10000, 0);
+        airspace.applyTrack("B2", 420, 300, 0, 0, 10000, 0);
+
+        airspace.tick();
+
+        List<Conflict> conflicts = airspace.getActiveConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals("danger", conflicts.get(0).getSeverity());
+    }
+
+    @Test
+    void testCoordinatorAppliesEverySectorsCollisions() {
+        airspace = new PartitionedAirspace(2);
+        airspace.applyTrack("A1", 100, 300, 0, 0, 10000, 0);
+        airspace.applyTrack("A2", 105, 300, 0, 0, 10000, 0);
+        airspace.applyTrack("B1", 700, 300, 0, 0, 10000, 0);
+        airspace.applyTrack("B2", 705, 300, 0, 0, 10000, 0);
+
+        airspace.tick();
+
+        assertEquals(2, airspace.getTotalCollisionCount());
+        assertEquals(1, airspace.getGame().getLives());
+        assertEquals(2, airspace.getGame().drainExplosions().size());
+        assertTrue(airspace.getGame().drainExplosions().isEmpty());
+    }
+
+    @Test
+    void testCrossBoundaryCollisionCountedOnce() {
+        airspace = new PartitionedAirspace(2);
+        airspace.applyTrack("A1", 395, 300, 0, 0, 10000, 0);
+        airspace.applyTrack("B2", 405, 300, 0, 0, 10000, 0);
+
+        airspace.tick();
+
+        assertEquals(1, airspace.getTotalCollisionCount());
+        assertEquals(2, airspace.getGame().getLives());
+        assertTrue(airspace.getAllAircrafts().isEmpty());
+    }
+
+    @Test
+    void testSectorMessagesSurviveSerialization() throws Exception {
+        Sector sector = AirTrafficService.newSector();
+        sector.applyTrack("A1", 380, 300, 0, 0, 10000, 0);
+        sector.applyTrack("A2", 385, 300, 0, 0, 10000, 0);
+        sector.applyTrack("B1", 395, 300, 0, 0, 11500, 0);
+        sector.setGhosts(List.of(new AircraftState("G1", "ACG1", 420, 300, -1, 0, 10000, 0, 3)));
+        sector.advance();
+
+        TickReport report = sector.detect();
+        assertFalse(report.conflicts().isEmpty());
+        assertEquals(1, report.collisions().size());
+        assertEquals(Set.of("A1", "A2"),
+                report.destroyed().stream().map(AircraftState::id).collect(Collectors.toSet()));
+        assertEquals(report, roundTrip(report));
+
+        List<AircraftState> handedOff = sector.handOff(0, 390);
+        assertEquals(List.of("B1"), handedOff.stream().map(AircraftState::id).toList());
+        assertEquals(handedOff, roundTrip(new ArrayList<>(handedOff)));
+        VelocityCommand command = new VelocityCommand("B1", 1, 2);
+        assertEquals(command, roundTrip(command));
+    }
+
+    @Test
+    void testHandedOffAircraftIsRebuiltByItsNewSector() {
+        airspace = new PartitionedAirspace(2);
+        AircraftState sent = airspace.applyTrack("A1", 395, 300, 100, 0, 10000, 0);
+
+        airspace.tick();
+
+        AircraftState received = airspace.getSector(1).find("A1");
+        assertEquals(sent.callSign(), received.callSign());
+        assertEquals(sent.velocityEpoch(), received.velocityEpoch());
+        // Changing a copy handed out by the coordinator leaves the sector's aircraft alone
+        airspace.getAllAircrafts().get(0).setX(0);
+        assertEquals(405, airspace.getSector(1).find("A1").x(), 0.01);
+    }
+
+    @Test
+    void testRejectsSectorsNarrowerThanGhostRegion() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedAirspace(9));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedAirspace(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T message) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    private static Set<String> conflictKeys(List<Conflict> conflicts) {
+        Set<String> keys = new HashSet<>();
+        for (Conflict conflict : conflicts) {
+            String id1 = conflict.getAircraft1().getId();
+            String id2 = conflict.getAircraft2().getId();
+            String pair = id1.compareTo(id2) < 0 ? id1 + "|" + id2 : id2 + "|" + id1;
+            keys.add(pair + "|" + conflict.getSeverity());
+        }
+        return keys;
+    }
+
+    private static Set<String> ids(Collection<Aircraft> aircraft) {
+        return aircraft.stream().map(Aircraft::getId).collect(Collectors.toSet());
+    }
+}
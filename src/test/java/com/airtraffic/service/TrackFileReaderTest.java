@@ -0,0 +1,169 @@
+package com.airtraffic.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private final TrackSink collector = (time, id, x, y, vx, vy, altitude, vs) ->
+            rows.add(new Object[]{time, id, x, y, vx, vy, altitude, vs});
+
+    @Test
+    void testReadCsv() throws IOException {
+        Path file = writeCsv("timeMillis,trackId,x,y,velocityX,velocityY,altitude,verticalSpeed\n"
+                + "1000,BAW12,100.5,200,-1.25,2e1,10000,0\n"
+                + "# comment\n"
+                + "\r\n"
+                + "1100, EZY7 ,101,-3.5,0.0,+4,12000,-500.75\r\n");
+
+        long count = new TrackFileReader().read(file, TrackFormat.CSV, collector);
+
+        assertEquals(2, count);
+        assertArrayEquals(new Object[]{1000L, "BAW12", 100.5, 200.0, -1.25, 20.0, 10000.0, 0.0}, rows.get(0));
+        assertArrayEquals(new Object[]{1100L, "EZY7", 101.0, -3.5, 0.0, 4.0, 12000.0, -500.75}, rows.get(1));
+    }
+
+    @Test
+    void testCsvRowsSpanningMappingWindows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(",T").append(i % 7).append(',').append(i * 0.5)
+                    .append(",1,2,3,").append(10000 + i).append(",0\n");
+        }
+        // No trailing newline on the final row
+        csv.append("500,T0,1,2,3,4,5,6");
+        Path file = writeCsv(csv.toString());
+
+        long count = new TrackFileReader(64).read(file, TrackFormat.CSV, collector);
+
+        assertEquals(501, count);
+        for (int i = 0; i < 500; i++) {
+            assertEquals((long) i, rows.get(i)[0]);
+            assertEquals(i * 0.5, (double) rows.get(i)[2], 1e-9);
+            assertEquals(10000.0 + i, rows.get(i)[6]);
+        }
+        assertEquals(6.0, rows.get(500)[7]);
+    }
+
+    @Test
+    void testMalformedCsvReportsLine() throws IOException {
+        Path file = writeCsv("1000,A,1,2,3,4,5,6\n1100,A,1,2,oops,4,5,6\n");
+
+        IOException error = assertThrows(IOException.class,
+                () -> new TrackFileReader().read(file, TrackFormat.CSV, collector));
+        assertTrue(error.getMessage().contains("line 2"));
+    }
+
+    @Test
+    void testHeaderAfterLeadingComment() throws IOException {
+        Path file = writeCsv("# recorded 2024-05-01\n\n"
+                + "timeMillis,trackId,x,y,velocityX,velocityY,altitude,verticalSpeed\n"
+                + "1000,A,1,2,3,4,5,6\n");
+
+        assertEquals(1, new TrackFileReader().read(file, TrackFormat.CSV, collector));
+        assertEquals("A", rows.get(0)[1]);
+    }
+
+    @Test
+    void testNonFiniteCsvNumberReportsLine() throws IOException {
+        Path file = writeCsv("1000,A,1,2,3,4,5,6\n1100,A,1,2,3,4,1e999,6\n");
+
+        IOException error = assertThrows(IOException.class,
+                () -> new TrackFileReader().read(file, TrackFormat.CSV, collector));
+        assertTrue(error.getMessage().contains("line 2"));
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void testNonFiniteBinaryValueReportsRecord() throws IOException {
+        Path file = tempDir.resolve("nan.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(TrackFileReader.BINARY_MAGIC);
+            out.writeInt(TrackFileReader.BINARY_VERSION);
+            for (int i = 0; i < 3; i++) {
+                out.writeLong(1000L + i);
+                out.writeLong(42L);
+                out.writeFloat(1);
+                out.writeFloat(2);
+                out.writeFloat(0);
+                out.writeFloat(0);
+                out.writeFloat(i == 2 ? Float.NaN : 11000f);
+                out.writeFloat(0);
+            }
+        }
+
+        IOException error = assertThrows(IOException.class,
+                () -> new TrackFileReader().read(file, TrackFormat.BINARY, collector));
+        assertTrue(error.getMessage().contains("record 3"));
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void testReadBinary() throws IOException {
+        Path file = tempDir.resolve("tracks.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(TrackFileReader.BINARY_MAGIC);
+            out.writeInt(TrackFileReader.BINARY_VERSION);
+            for (int i = 0; i < 10; i++) {
+                out.writeLong(1000L + i);
+                out.writeLong(42L + i % 2);
+                out.writeFloat(i);
+                out.writeFloat(2 * i);
+                out.writeFloat(1.5f);
+                out.writeFloat(-1.5f);
+                out.writeFloat(11000f);
+                out.writeFloat(250f);
+            }
+        }
+
+        long count = new TrackFileReader(TrackFileReader.BINARY_RECORD_BYTES * 3).read(
+                file, TrackFormat.BINARY, collector);
+
+        assertEquals(10, count);
+        assertArrayEquals(new Object[]{1009L, "43", 9.0, 18.0, 1.5, -1.5, 11000.0, 250.0}, rows.get(9));
+    }
+
+    @Test
+    void testBinaryRejectsBadHeader() throws IOException {
+        Path file = tempDir.resolve("bad.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> new TrackFileReader().read(file, TrackFormat.BINARY, collector));
+    }
+
+    @Test
+    void testParseNumber() {
+        assertEquals(-0.05, parse("-0.05"));
+        assertEquals(1234567.125, parse("1234567.125"));
+        assertEquals(1.5e-3, parse("1.5E-3"));
+        assertEquals(3.0, parse(" 3 "));
+        assertThrows(NumberFormatException.class, () -> parse("."));
+        assertThrows(NumberFormatException.class, () -> parse("1.2.3"));
+    }
+
+    private static double parse(String text) {
+        ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        return TrackFileReader.parseNumber(buf, 0, buf.limit());
+    }
+
+    private Path writeCsv(String content) throws IOException {
+        Path file = tempDir.resolve("tracks.csv");
+        Files.writeString(file, content);
+        return file;
+    }
+}
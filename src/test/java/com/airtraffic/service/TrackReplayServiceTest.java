@@ -0,0 +1,115 @@
+package com.airtraffic.service;
+
+import com.airtraffic.model.Aircraft;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackReplayServiceTest {
+
+    @TempDir
+    Path replayDir;
+
+    private AirTrafficService airTrafficService;
+    private TrackReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        airTrafficService = new AirTrafficService();
+        replayService = new TrackReplayService(airTrafficService, replayDir.toString());
+    }
+
+    @Test
+    void testReplayAppliesExplicitState() throws IOException {
+        Path file = replayDir.resolve("tracks.csv");
+        Files.writeString(file, "0,BAW1,100,100,1,0,10000,0\n"
+                + "0,EZY2,400,300,0,-2,20000,100\n"
+                + "50,BAW1,110,105,0,3,10500,0\n");
+
+        long applied = replayService.replay(file, TrackFormat.CSV, 0);
+
+        assertEquals(3, applied);
+        assertEquals(2, airTrafficService.getAllAircrafts().size());
+        Aircraft baw = airTrafficService.getAllAircrafts().stream()
+                .filter(a -> a.getId().equals("BAW1")).findFirst().orElseThrow();
+        assertEquals(110, baw.getX());
+        assertEquals(105, baw.getY());
+        assertEquals(0, baw.getVelocityX());
+        assertEquals(3, baw.getVelocityY());
+        assertEquals(10500, baw.getAltitude());
+        assertEquals("BAW1", baw.getCallSign());
+    }
+
+    @Test
+    void testReplayIsPacedByTimeScale() throws IOException {
+        Path file = replayDir.resolve("tracks.csv");
+        Files.writeString(file, "0,A,1,1,0,0,10000,0\n400,A,2,2,0,0,10000,0\n");
+
+        long start = System.nanoTime();
+        replayService.replay(file, TrackFormat.CSV, 4.0);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 400 ms of recorded time at 4x speed
+        assertTrue(elapsedMillis >= 90, "replay finished after " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testStartRejectsFilesOutsideReplayDirectory() {
+        assertThrows(IllegalArgumentException.class,
+                () -> replayService.start("../outside.csv", TrackFormat.CSV, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> replayService.start("missing.csv", TrackFormat.CSV, 1.0));
+    }
+
+    @Test
+    void testBackgroundReplayReportsStatus() throws Exception {
+        Files.writeString(replayDir.resolve("tracks.csv"), "0,A,1,1,0,0,10000,0\n");
+
+        replayService.start("tracks.csv", TrackFormat.CSV, 0);
+        for (int i = 0; i < 100 && (Boolean) replayService.getStatus().get("running"); i++) {
+            Thread.sleep(10);
+        }
+
+        Map<String, Object> status = replayService.getStatus();
+        assertEquals(false, status.get("running"));
+        assertEquals(1L, status.get("appliedUpdates"));
+        assertNull(status.get("error"));
+    }
+
+    @Test
+    void testReplayModeSuspendsGameRules() {
+        airTrafficService.setReplayMode(true);
+        airTrafficService.applyTrack("A", 100, 100, 0, 0, 10000, 0);
+        airTrafficService.applyTrack("B", 100, 105, 0, 0, 10000, 0);
+        airTrafficService.applyTrack("C", 400, 300, 0, 0, 10000, 0);
+        airTrafficService.applyTrack("D", 400, 305, 0, 0, 10000, 0);
+
+        airTrafficService.updatePositions();
+
+        Map<String, Object> state = airTrafficService.getGameState();
+        assertEquals(2, state.get("totalCollisions"));
+        assertEquals(3, state.get("lives"));
+        assertEquals(false, state.get("gameOver"));
+
+        // A collided track is not brought back by its next row
+        assertNull(airTrafficService.applyTrack("A", 200, 200, 0, 0, 10000, 0));
+        assertEquals(0, airTrafficService.getAllAircrafts().size());
+    }
+
+    @Test
+    void testReplayModeEndsWithReplay() throws IOException {
+        Path file = replayDir.resolve("tracks.csv");
+        Files.writeString(file, "0,A,1,1,0,0,10000,0\n");
+
+        replayService.replay(file, TrackFormat.CSV, 0);
+
+        assertFalse(airTrafficService.isReplayMode());
+    }
+}